@@ -0,0 +1,108 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.AnalyticsServiceImpl;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.DepartmentPassRate;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.InstructorServiceImpl;
+import edu.ccrm.service.StudentServiceImpl;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The enrollment analytics from the columnar matrix, next to the same
+ * reports computed with streams over the Student/Enrollment/Course objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int students;
+
+    private final AnalyticsServiceImpl analytics = new AnalyticsServiceImpl();
+    private Collection<Student> studentTable;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        DataStore.getInstance().clear();
+        new DataGenerator(42).populate(students, new StudentServiceImpl(), new InstructorServiceImpl(),
+                new CourseServiceImpl(), new EnrollmentServiceImpl());
+        studentTable = DataStore.getInstance().students();
+        DataStore.getInstance().addListener(analytics);
+        analytics.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void unregister() {
+        DataStore.getInstance().removeListener(analytics);
+    }
+
+    @Benchmark
+    public Map<String, int[]> gradeDistributionsMatrix() {
+        return analytics.getGradeDistributions();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> gradeDistributionsStream() {
+        return studentTable.stream()
+                .flatMap(student -> student.getEnrolledCourses().stream())
+                .collect(Collectors.groupingBy(e -> e.getCourse().getCode(),
+                        Collectors.groupingBy(e -> e.getGrade() == null ? "UNGRADED" : e.getGrade().name(),
+                                Collectors.counting())));
+    }
+
+    @Benchmark
+    public int[] creditLoadMatrix() {
+        return analytics.getCreditLoadHistogram();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> creditLoadStream() {
+        return studentTable.stream()
+                .collect(Collectors.groupingBy(student -> student.getEnrolledCourses().stream()
+                        .mapToInt(e -> e.getCourse().getCredits()).sum(), Collectors.counting()));
+    }
+
+    @Benchmark
+    public List<DepartmentPassRate> passRatesMatrix() {
+        return analytics.getDepartmentPassRates();
+    }
+
+    @Benchmark
+    public Map<String, Double> passRatesStream() {
+        return studentTable.stream()
+                .flatMap(student -> student.getEnrolledCourses().stream())
+                .filter(e -> e.getGrade() != null && e.getCourse().getDepartment() != null)
+                .collect(Collectors.groupingBy(e -> e.getCourse().getDepartment().toUpperCase(Locale.ROOT),
+                        Collectors.averagingDouble(AnalyticsBenchmark::passed)));
+    }
+
+    private static double passed(Enrollment enrollment) {
+        return enrollment.getGrade() == Grade.F ? 0.0 : 100.0;
+    }
+}
@@ -0,0 +1,154 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.ImportExportService;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.InstructorServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the store with synthetic students, instructors, courses and
+ * enrollments through the services, so the data passes the same checks as
+ * real input. The same seed always produces the same data.
+ *
+ * Run on its own it writes the data set to the data directory
+ * (-Dccrm.data.dir, default data/):
+ * <pre>
+ *   java -cp target/benchmarks.jar edu.ccrm.bench.DataGenerator STUDENTS COURSES ENROLLMENTS
+ * </pre>
+ */
+public final class DataGenerator {
+    public static final String[] DEPARTMENTS = {"SCOPE", "SASL", "SENSE", "SELECT", "SMEC", "SBST"};
+    // 6 courses of at most 4 credits stay under the 27-credit limit
+    private static final int MAX_ENROLLMENTS_PER_STUDENT = 6;
+
+    /**
+     * Keys of the generated records, for benchmarks to pick lookups from.
+     */
+    public record Dataset(String[] regNos, String[] courseCodes, String[] employeeIds) {}
+
+    private final Random random;
+
+    public DataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Default shape for a given number of students: one course per 200
+     * students (at least 60) and three enrollments per student.
+     */
+    public Dataset populate(int studentCount, StudentService studentService, InstructorService instructorService,
+                            CourseService courseService, EnrollmentService enrollmentService) {
+        return populate(studentCount, Math.max(60, studentCount / 200), 3 * studentCount,
+                studentService, instructorService, courseService, enrollmentService);
+    }
+
+    public Dataset populate(int studentCount, int courseCount, int enrollmentCount, StudentService studentService,
+                            InstructorService instructorService, CourseService courseService,
+                            EnrollmentService enrollmentService) {
+        int perStudentCap = Math.min(MAX_ENROLLMENTS_PER_STUDENT, courseCount);
+        if (enrollmentCount > (long) studentCount * perStudentCap) {
+            throw new IllegalArgumentException("At most " + perStudentCap + " enrollments per student fit; asked for "
+                    + enrollmentCount + " over " + studentCount + " students");
+        }
+
+        // The services announce every enrollment on stdout; keep that out of the way
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            String[] employeeIds = new String[Math.max(1, courseCount / 4)];
+            Instructor[] instructors = new Instructor[employeeIds.length];
+            for (int i = 0; i < employeeIds.length; i++) {
+                employeeIds[i] = "E" + (10_000 + i);
+                instructors[i] = new Instructor("I" + i, "Instructor " + i, "instructor" + i + "@vitbhopal.ac.in",
+                        birthDate(1960, 30), employeeIds[i], DEPARTMENTS[i % DEPARTMENTS.length]);
+                instructorService.addInstructor(instructors[i]);
+            }
+
+            String[] courseCodes = new String[courseCount];
+            Course[] courses = new Course[courseCount];
+            for (int i = 0; i < courseCount; i++) {
+                courseCodes[i] = "C" + (10_000 + i);
+                courses[i] = new Course.Builder(courseCodes[i], "Course " + i)
+                        .credits(3 + random.nextInt(2))
+                        .department(DEPARTMENTS[i % DEPARTMENTS.length])
+                        .semester(Semester.values()[random.nextInt(Semester.values().length)])
+                        .instructor(instructors[i % instructors.length])
+                        .build();
+                courseService.addCourse(courses[i]);
+            }
+
+            String[] regNos = new String[studentCount];
+            Student[] students = new Student[studentCount];
+            for (int i = 0; i < studentCount; i++) {
+                regNos[i] = "24BCE" + (10_000_000 + i);
+                students[i] = new Student("Student " + i, "student" + i + "@vitbhopal.ac.in", birthDate(2003, 4), regNos[i]);
+                studentService.addStudent(students[i]);
+            }
+
+            // Spread the enrollments evenly; each student takes consecutive courses from a random start
+            Grade[] grades = Grade.values();
+            for (int i = 0; i < studentCount; i++) {
+                int count = enrollmentCount / studentCount + (i < enrollmentCount % studentCount ? 1 : 0);
+                int first = random.nextInt(courseCount);
+                for (int j = 0; j < count; j++) {
+                    Course course = courses[(first + j) % courseCount];
+                    try {
+                        enrollmentService.enrollStudent(students[i], course);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Generated enrollment was rejected: " + e.getMessage(), e);
+                    }
+                    if (random.nextInt(5) != 0) { // about one in five stays ungraded
+                        enrollmentService.assignGrade(students[i], course, grades[random.nextInt(grades.length)]);
+                    }
+                }
+            }
+            return new Dataset(regNos, courseCodes, employeeIds);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private LocalDate birthDate(int fromYear, int yearSpan) {
+        return LocalDate.of(fromYear + random.nextInt(yearSpan), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: DataGenerator STUDENTS COURSES ENROLLMENTS");
+            System.exit(2);
+        }
+        StudentService studentService = new StudentServiceImpl();
+        InstructorService instructorService = new InstructorServiceImpl();
+        CourseService courseService = new CourseServiceImpl();
+        long start = System.nanoTime();
+        new DataGenerator(42).populate(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                studentService, instructorService, courseService, new EnrollmentServiceImpl());
+
+        ImportExportService ioService = new ImportExportService();
+        List<Student> students = studentService.getAllStudents();
+        List<Instructor> instructors = instructorService.getAllInstructors();
+        List<Course> courses = courseService.getAllCourses();
+        boolean saved = ioService.exportStudents(students)
+                & ioService.exportInstructors(instructors)
+                & ioService.exportCourses(courses)
+                & ioService.exportEnrollments(students)
+                && ioService.exportBinarySnapshot(students, instructors, courses);
+        System.out.println((saved ? "Generated " : "Failed to write ") + students.size() + " students, "
+                + courses.size() + " courses in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+}
@@ -0,0 +1,86 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.ImportExportService;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.InstructorServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write each data file for a store of the given size. Every call
+ * writes the complete file and swaps it into place, as a save does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "-Dccrm.data.dir=target/bench-data/export"})
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int students;
+
+    private final ImportExportService ioService = new ImportExportService();
+    private List<Student> studentList;
+    private List<Instructor> instructorList;
+    private List<Course> courseList;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        DataStore.getInstance().clear();
+        StudentService studentService = new StudentServiceImpl();
+        InstructorService instructorService = new InstructorServiceImpl();
+        CourseService courseService = new CourseServiceImpl();
+        new DataGenerator(42).populate(students, studentService, instructorService, courseService,
+                new EnrollmentServiceImpl());
+        studentList = studentService.getAllStudents();
+        instructorList = instructorService.getAllInstructors();
+        courseList = courseService.getAllCourses();
+    }
+
+    @Benchmark
+    public boolean exportStudents() {
+        return ioService.exportStudents(studentList);
+    }
+
+    @Benchmark
+    public boolean exportInstructors() {
+        return ioService.exportInstructors(instructorList);
+    }
+
+    @Benchmark
+    public boolean exportCourses() {
+        return ioService.exportCourses(courseList);
+    }
+
+    @Benchmark
+    public boolean exportEnrollments() {
+        return ioService.exportEnrollments(studentList);
+    }
+
+    @Benchmark
+    public boolean exportBinarySnapshot() {
+        return ioService.exportBinarySnapshot(studentList, instructorList, courseList);
+    }
+}
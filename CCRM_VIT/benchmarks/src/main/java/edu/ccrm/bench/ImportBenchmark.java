@@ -0,0 +1,131 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.ImportPipeline;
+import edu.ccrm.io.MappedStudentSource;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.InstructorServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load a saved data set of the given size into an empty store, by
+ * each of the startup paths. The files are generated once per trial and the
+ * store is emptied before every call.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "-Dccrm.data.dir=target/bench-data/import"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int students;
+
+    private final ImportExportService ioService = new ImportExportService();
+    private final StudentService studentService = new StudentServiceImpl();
+    private final InstructorService instructorService = new InstructorServiceImpl();
+    private final CourseService courseService = new CourseServiceImpl();
+    private final EnrollmentService enrollmentService = new EnrollmentServiceImpl();
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void writeDataSet() {
+        DataStore.getInstance().clear();
+        new DataGenerator(42).populate(students, studentService, instructorService, courseService, enrollmentService);
+        List<Student> studentList = studentService.getAllStudents();
+        List<Instructor> instructorList = instructorService.getAllInstructors();
+        List<Course> courseList = courseService.getAllCourses();
+        boolean written = ioService.exportStudents(studentList)
+                & ioService.exportInstructors(instructorList)
+                & ioService.exportCourses(courseList)
+                & ioService.exportEnrollments(studentList)
+                && ioService.exportBinarySnapshot(studentList, instructorList, courseList);
+        if (!written) {
+            throw new IllegalStateException("Could not write the benchmark data set");
+        }
+
+        // Imports enroll through the service, which prints a line per enrollment
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyStore() {
+        DataStore.getInstance().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreConsole() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public int importStudents() {
+        ioService.importStudents(studentService);
+        return studentService.getStudentCount();
+    }
+
+    /**
+     * The four CSV files one after another on the calling thread.
+     */
+    @Benchmark
+    public int importCsvSequential() {
+        ioService.importStudents(studentService);
+        ioService.importInstructors(instructorService);
+        ioService.importCourses(courseService, instructorService);
+        ioService.importEnrollments(studentService, courseService, enrollmentService);
+        return studentService.getStudentCount();
+    }
+
+    /**
+     * The four CSV files through the parallel startup pipeline.
+     */
+    @Benchmark
+    public int importCsvPipeline() {
+        new ImportPipeline(ioService, studentService, instructorService, courseService, enrollmentService).run();
+        return studentService.getStudentCount();
+    }
+
+    @Benchmark
+    public int importBinarySnapshot() {
+        ioService.importBinarySnapshot(studentService, instructorService, courseService, enrollmentService);
+        return studentService.getStudentCount();
+    }
+
+    /**
+     * Read-mostly startup: maps the snapshot and attaches it without building any student.
+     */
+    @Benchmark
+    public int openMappedSnapshot() {
+        MappedStudentSource source = ioService.openStudentSource(instructorService, courseService);
+        DataStore.getInstance().attachStudentSource(source, 10_000);
+        return source.size();
+    }
+}
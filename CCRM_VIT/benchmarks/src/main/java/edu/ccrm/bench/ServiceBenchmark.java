@@ -0,0 +1,128 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.InstructorServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-call cost of the hot service methods against a store of the given size.
+ * Each operation picks its student or department at random, so the results
+ * include cache misses across the whole data set rather than one warm record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    // Not taken by any generated student, and light enough to fit under every credit total
+    private static final String SPARE_COURSE = "BENCH1";
+
+    @Param({"10000", "100000", "1000000"})
+    public int students;
+
+    private final StudentService studentService = new StudentServiceImpl();
+    private final CourseService courseService = new CourseServiceImpl();
+    private final EnrollmentService enrollmentService = new EnrollmentServiceImpl();
+    private DataGenerator.Dataset dataset;
+    private Student[] studentArray;
+    private Course spareCourse;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        DataStore.getInstance().clear();
+        dataset = new DataGenerator(42).populate(students, studentService, new InstructorServiceImpl(),
+                courseService, enrollmentService);
+        studentArray = new Student[dataset.regNos().length];
+        for (int i = 0; i < studentArray.length; i++) {
+            studentArray[i] = studentService.findStudentByRegNo(dataset.regNos()[i]).orElseThrow();
+        }
+        spareCourse = new Course.Builder(SPARE_COURSE, "Benchmark Elective").credits(1)
+                .department(DataGenerator.DEPARTMENTS[0]).semester(Semester.FALL).build();
+        courseService.addCourse(spareCourse);
+
+        // enrollStudent and unenrollStudent print a line per call
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreConsole() {
+        System.setOut(console);
+    }
+
+    private Student randomStudent() {
+        return studentArray[ThreadLocalRandom.current().nextInt(studentArray.length)];
+    }
+
+    @Benchmark
+    public Optional<Student> findStudentByRegNo() {
+        return studentService.findStudentByRegNo(dataset.regNos()[ThreadLocalRandom.current().nextInt(students)]);
+    }
+
+    @Benchmark
+    public List<Course> findCoursesByDepartment() {
+        String[] departments = DataGenerator.DEPARTMENTS;
+        return courseService.findCoursesByDepartment(departments[ThreadLocalRandom.current().nextInt(departments.length)]);
+    }
+
+    @Benchmark
+    public double calculateGpa() {
+        return enrollmentService.calculateGpa(randomStudent());
+    }
+
+    /**
+     * Re-grades one of a random student's existing enrollments.
+     */
+    @Benchmark
+    public Grade assignGrade() {
+        Student student = randomStudent();
+        Course course = student.getEnrolledCourses().iterator().next().getCourse();
+        Grade grade = Grade.values()[ThreadLocalRandom.current().nextInt(Grade.values().length)];
+        enrollmentService.assignGrade(student, course, grade);
+        return grade;
+    }
+
+    /**
+     * Enrolls a random student in the spare course and unenrolls them again,
+     * so the store is the same size after every operation. The score covers
+     * both calls.
+     */
+    @Benchmark
+    public int enrollStudent() throws Exception {
+        Student student = randomStudent();
+        enrollmentService.enrollStudent(student, spareCourse);
+        enrollmentService.unenrollStudent(student, spareCourse);
+        return student.getEnrollmentCount();
+    }
+}
@@ -0,0 +1,192 @@
+package edu.ccrm.cli;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.CourseFullException;
+import edu.ccrm.exception.DuplicateEnrollmentException;
+import edu.ccrm.exception.MaxCreditLimitExceededException;
+import edu.ccrm.metrics.MetricsRegistry;
+import edu.ccrm.report.ReportRenderer;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs menu operations from a script instead of the interactive prompts.
+ * One command per line; blank lines and lines starting with # are skipped.
+ * <pre>
+ *   enroll REG COURSE        unenroll REG COURSE      grade REG COURSE GRADE
+ *   transcript REG           student REG              roster COURSE
+ *   stats
+ * </pre>
+ * Read-only commands are rendered to strings, so with more than one thread
+ * consecutive reads run in parallel. Every mutating command is a barrier: the
+ * reads before it are finished and printed first, then it runs on the calling
+ * thread, so the output is always in script order.
+ */
+final class BatchRunner {
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final DataStore dataStore = DataStore.getInstance();
+    // Reads render on pool threads, each into its own reusable buffer
+    private static final ThreadLocal<ReportRenderer> REPORTS = ThreadLocal.withInitial(ReportRenderer::new);
+    private int failures;
+
+    BatchRunner(StudentService studentService, CourseService courseService, EnrollmentService enrollmentService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * Executes every command in the script, writing results to out.
+     * @return Number of commands that failed
+     */
+    int run(BufferedReader script, PrintStream out, int threads) throws IOException {
+        ExecutorService executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        // Reads still rendering, oldest first; bounded so a long run of reads does not pile up in memory
+        Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        int window = threads * 64;
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = script.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] words = line.split("\\s+");
+                String command = words[0].toLowerCase(Locale.ROOT);
+                int at = lineNumber;
+                switch (command) {
+                    case "transcript", "student", "roster" -> {
+                        if (executor == null) {
+                            out.print(read(command, words, at));
+                        } else {
+                            pending.add(CompletableFuture.supplyAsync(() -> read(command, words, at), executor));
+                            if (pending.size() >= window) {
+                                out.print(pending.poll().join());
+                            }
+                        }
+                    }
+                    case "enroll", "unenroll", "grade" -> {
+                        drain(pending, out);
+                        write(command, words, at);
+                    }
+                    case "stats" -> {
+                        // Covers every command before it, so wait for the reads in flight
+                        drain(pending, out);
+                        if (MetricsRegistry.ENABLED) {
+                            out.print(REPORTS.get().operationStats(MetricsRegistry.getInstance().activeTimers()).drain());
+                        } else {
+                            fail(at, "Metrics are off; start with -Dccrm.metrics=true");
+                        }
+                    }
+                    default -> fail(at, "Unknown command '" + words[0] + "'");
+                }
+            }
+            drain(pending, out);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return failures;
+    }
+
+    private static void drain(Deque<CompletableFuture<String>> pending, PrintStream out) {
+        while (!pending.isEmpty()) {
+            out.print(pending.poll().join());
+        }
+    }
+
+    private synchronized void fail(int lineNumber, String message) {
+        failures++;
+        System.err.println("Line " + lineNumber + ": " + message);
+    }
+
+    // --- Mutating commands: run in order on the calling thread ---
+
+    private void write(String command, String[] words, int lineNumber) {
+        int expected = command.equals("grade") ? 4 : 3;
+        if (words.length != expected) {
+            fail(lineNumber, "Usage: " + command + " REG COURSE" + (expected == 4 ? " GRADE" : ""));
+            return;
+        }
+        Optional<Student> student = studentService.findStudentByRegNo(words[1]);
+        Optional<Course> course = courseService.findCourseByCode(words[2]);
+        if (student.isEmpty() || course.isEmpty()) {
+            fail(lineNumber, (student.isEmpty() ? "Student " + words[1] : "Course " + words[2]) + " not found");
+            return;
+        }
+        try {
+            switch (command) {
+                case "enroll" -> enrollmentService.enrollStudent(student.get(), course.get());
+                case "unenroll" -> enrollmentService.unenrollStudent(student.get(), course.get());
+                default -> enrollmentService.assignGrade(student.get(), course.get(),
+                        Grade.valueOf(words[3].toUpperCase(Locale.ROOT)));
+            }
+        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException
+                 | NoSuchElementException | UncheckedIOException e) {
+            fail(lineNumber, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            fail(lineNumber, "Invalid grade '" + words[3] + "'");
+        }
+    }
+
+    // --- Read-only commands: may run on any pool thread ---
+
+    private String read(String command, String[] words, int lineNumber) {
+        if (words.length != 2) {
+            fail(lineNumber, "Usage: " + command + (command.equals("roster") ? " COURSE" : " REG"));
+            return "";
+        }
+        if (command.equals("roster")) {
+            Optional<Course> course = courseService.findCourseByCode(words[1]);
+            if (course.isEmpty()) {
+                fail(lineNumber, "Course " + words[1] + " not found");
+                return "";
+            }
+            return REPORTS.get().roster(course.get(), enrollmentService.getCourseRoster(course.get()),
+                    enrollmentService.getWaitlist(course.get())).drain();
+        }
+        Optional<Student> student = studentService.findStudentByRegNo(words[1]);
+        if (student.isEmpty()) {
+            fail(lineNumber, "Student " + words[1] + " not found");
+            return "";
+        }
+        if (command.equals("student")) {
+            return REPORTS.get().studentSummary(student.get()).drain();
+        }
+        return transcript(student.get());
+    }
+
+    private String transcript(Student student) {
+        ReportRenderer report = REPORTS.get();
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            report.transcript(student);
+        } finally {
+            lock.unlock();
+        }
+        return report.drain();
+    }
+}
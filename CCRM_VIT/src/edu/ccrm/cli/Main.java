@@ -1,14 +1,36 @@
 package edu.ccrm.cli;
 
+import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.*;
+import edu.ccrm.exception.CourseFullException;
 import edu.ccrm.exception.DuplicateEnrollmentException;
 import edu.ccrm.exception.MaxCreditLimitExceededException;
 import edu.ccrm.io.BackupService;
 import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.ImportPipeline;
+import edu.ccrm.io.Journal;
+import edu.ccrm.io.MappedStudentSource;
+import edu.ccrm.metrics.InstrumentedCourseService;
+import edu.ccrm.metrics.InstrumentedEnrollmentService;
+import edu.ccrm.metrics.InstrumentedInstructorService;
+import edu.ccrm.metrics.InstrumentedStudentService;
+import edu.ccrm.metrics.MetricsRegistry;
+import edu.ccrm.report.ReportRenderer;
+import edu.ccrm.server.RequestServer;
 import edu.ccrm.service.*;
 import edu.ccrm.util.Validator;
 
-import java.nio.file.Paths;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -16,31 +38,76 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 public class Main {
 
-    // Instantiate all services, including the new InstructorService
+    // Instantiate all services, including the new InstructorService.
+    // With -Dccrm.metrics=true each one is wrapped to time its calls; otherwise they are used as is.
     private static final Scanner scanner = new Scanner(System.in);
-    private static final StudentService studentService = new StudentServiceImpl();
-    private static final CourseService courseService = new CourseServiceImpl();
-    private static final InstructorService instructorService = new InstructorServiceImpl();
-    private static final EnrollmentService enrollmentService = new EnrollmentServiceImpl();
+    private static final boolean metrics = MetricsRegistry.ENABLED;
+    private static final StudentService studentService = metrics
+            ? new InstrumentedStudentService(new StudentServiceImpl()) : new StudentServiceImpl();
+    private static final CourseService courseService = metrics
+            ? new InstrumentedCourseService(new CourseServiceImpl()) : new CourseServiceImpl();
+    private static final InstructorService instructorService = metrics
+            ? new InstrumentedInstructorService(new InstructorServiceImpl()) : new InstructorServiceImpl();
+    private static final EnrollmentService enrollmentService = metrics
+            ? new InstrumentedEnrollmentService(new EnrollmentServiceImpl()) : new EnrollmentServiceImpl();
+    // Also a listener, so it is registered with the DataStore at startup
+    private static final RankingServiceImpl rankingService = new RankingServiceImpl();
+    private static final AnalyticsServiceImpl analyticsService = new AnalyticsServiceImpl();
+    private static final CourseStatisticsServiceImpl statisticsService = new CourseStatisticsServiceImpl();
     private static final ImportExportService ioService = new ImportExportService();
     private static final BackupService backupService = new BackupService();
+    private static final ReportRenderer report = new ReportRenderer(); // the menu runs on one thread
+    private static final double DEANS_LIST_GPA = 9.0;
+    private static final double PROBATION_GPA = 5.0;
+    private static Journal journal; // null if the journal could not be opened
+    private static boolean restored; // a backup was restored; exit without saving over it
+    private static final String USAGE = "Usage: edu.ccrm.cli.Main [--lazy] [--server | --batch <script|-> [--threads <n>]]";
 
     public static void main(String[] args) {
+        // Checked before anything is loaded, so a typo fails fast
+        int threads = threadsOption(args);
+        if (threads < 1) {
+            System.err.println("❌ Error: --threads must be a positive whole number.");
+            System.err.println(USAGE);
+            return;
+        }
         System.out.println("Welcome to the Campus Course & Records Manager!");
 
         // --- UPDATED IMPORT SECTION ---
         System.out.println("Loading data from files...");
-        ioService.importStudents(studentService);
-        ioService.importInstructors(instructorService);
-        // Corrected importCourses call to include instructorService
-        ioService.importCourses(courseService, instructorService);
-        ioService.importEnrollments(studentService, courseService, enrollmentService);
+        long loadStart = System.nanoTime();
+        loadData(List.of(args).contains("--lazy"));
+        if (metrics) {
+            MetricsRegistry.getInstance().timer("io.load").stop(loadStart);
+        }
+        ioService.importWaitlists(studentService, courseService, enrollmentService);
+
+        // Re-apply changes made after the last snapshot, then start journaling new ones
+        int replayed = Journal.replay(Journal.JOURNAL_FILE, studentService, instructorService, courseService, enrollmentService);
+        if (replayed > 0) {
+            System.out.println("Recovered " + replayed + " change(s) from the journal.");
+        }
+        openJournal();
+        // Rankings, analytics and course statistics are built on first use and kept up to date from then on
+        DataStore.getInstance().addListener(rankingService);
+        DataStore.getInstance().addListener(analyticsService);
+        DataStore.getInstance().addListener(statisticsService);
+
+        if (List.of(args).contains("--server")) {
+            runServer(Integer.getInteger("ccrm.server.port", 8080));
+            return;
+        }
+        String batch = optionValue(args, "--batch");
+        if (batch != null) {
+            runBatch(batch, threads);
+            return;
+        }
 
-        if (studentService.getAllStudents().isEmpty() && courseService.getAllCourses().isEmpty()) {
+        if (studentService.getStudentCount() == 0 && courseService.getAllCourses().isEmpty()) {
             System.out.println("No data found. You can add new students and courses.");
         }
 
@@ -48,27 +115,202 @@ public class Main {
         do {
             printMainMenu();
             String choice = scanner.nextLine();
-            switch (choice) {
-                case "1" -> handleStudentMenu();
-                case "2" -> handleInstructorMenu(); // Added handler
-                case "3" -> handleCourseMenu();
-                case "4" -> handleEnrollmentMenu();
-                case "5" -> handleFileMenu();
-                case "9" -> exit = true;
-                default -> System.out.println("Invalid choice. Please try again.");
+            try {
+                switch (choice) {
+                    case "1" -> handleStudentMenu();
+                    case "2" -> handleInstructorMenu(); // Added handler
+                    case "3" -> handleCourseMenu();
+                    case "4" -> handleEnrollmentMenu();
+                    case "5" -> handleFileMenu();
+                    case "6" -> showStats();
+                    case "7" -> handleAnalyticsMenu();
+                    case "9" -> exit = true;
+                    default -> System.out.println("Invalid choice. Please try again.");
+                }
+            } catch (UncheckedIOException e) {
+                // The journal stopped; the change is applied but only a snapshot will keep it
+                System.err.println("❌ Error: " + e.getMessage() + ". Use 'Save Snapshot Now' in File Utilities.");
             }
-        } while (!exit);
+        } while (!exit && !restored);
 
         // --- UPDATED EXPORT SECTION ---
-        System.out.println("Saving all data to files...");
-        ioService.exportStudents(studentService.getAllStudents());
-        ioService.exportInstructors(instructorService.getAllInstructors()); // Added export
-        ioService.exportCourses(courseService.getAllCourses());
-        ioService.exportEnrollments(studentService.getAllStudents());
+        if (!restored) {
+            System.out.println("Saving all data to files...");
+            saveSnapshot();
+            closeJournal();
+        }
         System.out.println("Thank you for using CCRM. Goodbye!");
         scanner.close();
     }
 
+    // The argument following the given option, or null if the option is absent
+    private static String optionValue(String[] args, String option) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(option)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    // The --threads value, 1 if absent, or 0 if it is not a whole number
+    private static int threadsOption(String[] args) {
+        String threads = optionValue(args, "--threads");
+        if (threads == null) {
+            return List.of(args).contains("--threads") ? 0 : 1;
+        }
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Non-interactive mode: runs the commands in a script file, or stdin for "-",
+     * then saves as the menu does on exit. Standard output is fully buffered for
+     * the run, so console writes do not throttle the services.
+     */
+    private static void runBatch(String source, int threads) {
+        PrintStream console = System.out;
+        PrintStream buffered = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false, StandardCharsets.UTF_8);
+        int failed;
+        long start = System.nanoTime();
+        System.setOut(buffered);
+        try (BufferedReader script = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            failed = new BatchRunner(studentService, courseService, enrollmentService)
+                    .run(script, buffered, Math.max(1, threads));
+        } catch (IOException e) {
+            System.err.println("❌ Could not read batch script: " + e.getMessage());
+            failed = -1;
+        } finally {
+            buffered.flush();
+            System.setOut(console);
+        }
+        System.out.println("Batch finished in " + (System.nanoTime() - start) / 1_000_000 + "ms"
+                + (failed > 0 ? " with " + failed + " failed command(s)" : ""));
+        saveSnapshot();
+        closeJournal();
+        if (failed != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Headless mode: serves the services over HTTP instead of running the menu.
+     * The server threads keep the JVM alive; on shutdown (e.g. Ctrl+C) the
+     * server drains and a snapshot is written, as when exiting the menu.
+     */
+    private static void runServer(int port) {
+        RequestServer server = new RequestServer(studentService, courseService, enrollmentService);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.err.println("❌ Could not start the server on port " + port + ": " + e.getMessage());
+            closeJournal();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Stopping server and saving all data to files...");
+            server.stop(2);
+            saveSnapshot();
+            closeJournal();
+        }));
+        System.out.println("Serving on http://localhost:" + server.getPort() + "/ (Ctrl+C to stop)");
+    }
+
+    /**
+     * Loads the binary snapshot when it is at least as new as the CSV files, and the CSV files otherwise.
+     * @param lazy Read-mostly mode: leave students in the mapped snapshot and build them on lookup
+     */
+    private static void loadData(boolean lazy) {
+        if (ioService.isBinarySnapshotFresh()) {
+            long start = System.nanoTime();
+            if (lazy) {
+                MappedStudentSource source = ioService.openStudentSource(instructorService, courseService);
+                if (source != null) {
+                    DataStore.getInstance().attachStudentSource(source, Integer.getInteger("ccrm.cache.size", 10_000));
+                    System.out.println("Mapped " + source.size() + " student(s) from binary snapshot in "
+                            + (System.nanoTime() - start) / 1_000_000 + "ms");
+                    return;
+                }
+            }
+            if (ioService.importBinarySnapshot(studentService, instructorService, courseService, enrollmentService)) {
+                System.out.println("Data loaded from binary snapshot in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+                return;
+            }
+            System.out.println("Falling back to the CSV files.");
+        }
+        if (lazy) {
+            System.out.println("No fresh binary snapshot; loading every student instead.");
+        }
+        // Independent files load in parallel; courses wait for instructors, enrollments for both
+        List<ImportPipeline.StageTiming> timings =
+                new ImportPipeline(ioService, studentService, instructorService, courseService, enrollmentService).run();
+        StringBuilder timingReport = new StringBuilder("Data loaded in");
+        for (ImportPipeline.StageTiming timing : timings) {
+            timingReport.append(' ').append(timing.stage()).append('=').append(timing.millis()).append("ms");
+        }
+        System.out.println(timingReport);
+    }
+
+    private static void openJournal() {
+        try {
+            journal = Journal.open(Journal.JOURNAL_FILE);
+            DataStore.getInstance().addListener(journal);
+        } catch (IOException e) {
+            System.err.println("⚠ Could not open journal, changes will only be saved on exit: " + e.getMessage());
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal == null) return;
+        DataStore.getInstance().removeListener(journal);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not close journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all CSV files and the binary snapshot atomically and, once they are
+     * all in place, empties the journal.
+     */
+    private static boolean saveSnapshot() {
+        long start = System.nanoTime();
+        boolean saved = (journal != null) ? journal.checkpoint(Main::exportAll) : exportAll();
+        if (metrics) {
+            MetricsRegistry.getInstance().timer("io.save").stop(start);
+        }
+        return saved;
+    }
+
+    private static void showStats() {
+        if (!metrics) {
+            System.out.println("Metrics are off. Start with -Dccrm.metrics=true to collect them.");
+            return;
+        }
+        report.operationStats(MetricsRegistry.getInstance().activeTimers()).printTo(System.out);
+    }
+
+    private static boolean exportAll() {
+        List<Student> students = studentService.getAllStudents();
+        List<Instructor> instructors = instructorService.getAllInstructors();
+        List<Course> courses = courseService.getAllCourses();
+        // Non-short-circuit & so every file is attempted even if one fails
+        boolean csvSaved = ioService.exportStudents(students)
+                & ioService.exportInstructors(instructors) // Added export
+                & ioService.exportCourses(courses)
+                & ioService.exportEnrollments(students)
+                & ioService.exportWaitlists(courses, enrollmentService);
+        // Written last so that it is only considered fresh once the CSV files match it
+        return csvSaved && ioService.exportBinarySnapshot(students, instructors, courses);
+    }
+
     private static void printMainMenu() {
         System.out.println("\n--- MAIN MENU ---");
         System.out.println("1. Student Management");
@@ -76,6 +318,8 @@ public class Main {
         System.out.println("3. Course Management");
         System.out.println("4. Enrollment & Grades");
         System.out.println("5. File Utilities");
+        System.out.println("6. Operation Statistics");
+        System.out.println("7. Enrollment Analytics");
         System.out.println("9. Save and Exit");
         System.out.print("Enter your choice: ");
     }
@@ -133,6 +377,9 @@ public class Main {
             System.out.println("2. List All Courses (with Instructors)");
             System.out.println("3. Assign Instructor to Course");
             System.out.println("4. Search Courses by Department");
+            System.out.println("5. View Course Roster");
+            System.out.println("6. Search Courses by Department and Semester");
+            System.out.println("7. Course Statistics");
             System.out.println("9. Back to Main Menu");
             System.out.print("Enter your choice: ");
             String choice = scanner.nextLine();
@@ -141,6 +388,9 @@ public class Main {
                 case "2" -> listAllCourses();
                 case "3" -> assignInstructorToCourse();
                 case "4" -> searchCourses();
+                case "5" -> viewCourseRoster();
+                case "6" -> searchCoursesBySemester();
+                case "7" -> showCourseStatistics();
                 case "9" -> back = true;
                 default -> System.out.println("Invalid choice.");
             }
@@ -156,6 +406,8 @@ public class Main {
             System.out.println("2. Unenroll Student from Course");
             System.out.println("3. Assign Grade");
             System.out.println("4. Print Student Transcript");
+            System.out.println("5. Bulk Enroll from File");
+            System.out.println("6. Class Rankings");
             System.out.println("9. Back to Main Menu");
             System.out.print("Enter your choice: ");
             String choice = scanner.nextLine();
@@ -164,6 +416,8 @@ public class Main {
                 case "2" -> unenrollStudentFromCourse();
                 case "3" -> assignGradeToStudent();
                 case "4" -> printStudentTranscript();
+                case "5" -> bulkEnroll();
+                case "6" -> showRankings();
                 case "9" -> back = true;
                 default -> System.out.println("Invalid choice.");
             }
@@ -174,18 +428,71 @@ public class Main {
         System.out.println("\n-- File Utilities --");
         System.out.println("1. Create Backup of Current Data");
         System.out.println("2. Show Backup Directory Size");
+        System.out.println("3. Save Snapshot Now");
+        System.out.println("4. Restore from Backup");
+        System.out.println("5. Verify Backup");
+        System.out.println("6. Create Compressed Archive Backup");
+        System.out.println("7. Restore from Archive");
+        System.out.println("8. Rescan Backup Directory Size");
         System.out.print("Enter your choice: ");
         String choice = scanner.nextLine();
         switch(choice) {
             case "1" -> backupService.performBackup();
+            case "3" -> {
+                if (saveSnapshot()) System.out.println("✅ Snapshot saved.");
+            }
+            case "4" -> restoreFrom(backupService.listBackups(), backupService::restoreBackup);
+            case "5" -> chooseBackup(backupService.listBackups()).ifPresent(backupService::verifyBackup);
+            case "6" -> backupService.performArchiveBackup();
+            case "7" -> restoreFrom(backupService.listArchives(), backupService::restoreArchive);
             case "2" -> {
-                long size = backupService.calculateDirectorySize(Paths.get("backups"));
-                System.out.printf("Total size of backups directory: %.2f KB%n", size / 1024.0);
+                BackupService.DirectoryUsage usage = backupService.getBackupUsage();
+                System.out.printf("Total size of backups directory: %.2f KB in %d file(s)%n", usage.bytes() / 1024.0, usage.files());
+            }
+            case "8" -> {
+                BackupService.DirectoryUsage usage = backupService.reconcileCatalog();
+                System.out.printf("Scanned backups directory: %.2f KB in %d file(s). Catalog updated.%n",
+                        usage.bytes() / 1024.0, usage.files());
             }
             default -> System.out.println("Invalid choice.");
         }
     }
 
+    private static Optional<String> chooseBackup(List<String> backups) {
+        if (backups.isEmpty()) {
+            System.out.println("No backups found.");
+            return Optional.empty();
+        }
+        for (int i = 0; i < backups.size(); i++) {
+            System.out.println((i + 1) + ". " + backups.get(i));
+        }
+        System.out.print("Select a backup: ");
+        try {
+            return Optional.of(backups.get(Integer.parseInt(scanner.nextLine().trim()) - 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            System.err.println("❌ Error: Invalid selection.");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Restores the data files and ends the session without saving, since saving
+     * the in-memory data would overwrite what was just restored.
+     */
+    private static void restoreFrom(List<String> backups, Predicate<String> restore) {
+        Optional<String> backup = chooseBackup(backups);
+        if (backup.isEmpty()) return;
+        System.out.print("This replaces the data files and exits without saving the current session. Continue? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+        closeJournal();
+        if (restore.test(backup.get())) {
+            System.out.println("✅ Restart CCRM to load the restored data.");
+            restored = true;
+        } else {
+            openJournal();
+        }
+    }
+
     // --- ACTION METHODS ---
 
     private static void addStudent() {
@@ -213,8 +520,9 @@ public class Main {
 
             System.out.print("Enter Registration Number: "); String regNo = scanner.nextLine();
 
-            studentService.addStudent(new Student(name, email, dob, regNo));
-            System.out.println("✅ Student '" + name + "' added successfully.");
+            if (studentService.addStudent(new Student(name, email, dob, regNo))) {
+                System.out.println("✅ Student '" + name + "' added successfully.");
+            }
         } catch (Exception e) {
             System.err.println("❌ An unexpected error occurred: " + e.getMessage());
         }
@@ -257,45 +565,21 @@ public class Main {
 
         Course course = courseOpt.get();
         Instructor instructor = instructorOpt.get();
-        course.setInstructor(instructor);
+        courseService.assignInstructor(course, instructor);
 
         System.out.println("✅ Successfully assigned Prof. " + instructor.getFullName() + " to " + course.getTitle());
     }
 
     private static void listAllStudents() {
-        System.out.println("\n--- All Students ---");
-        List<Student> students = studentService.getAllStudents();
-        if (students.isEmpty()) {
-            System.out.println("No students found.");
-        } else {
-            students.forEach(student -> {
-                String status = student.isActive() ? "" : " [DEACTIVATED]";
-                System.out.println(student.getProfileDetails() + status);
-            });
-        }
+        report.studentList(studentService.getAllStudents()).printTo(System.out);
     }
 
     private static void listAllInstructors() {
-        System.out.println("\n--- All Instructors ---");
-        List<Instructor> instructors = instructorService.getAllInstructors();
-        if (instructors.isEmpty()) {
-            System.out.println("No instructors found.");
-        } else {
-            instructors.forEach(instructor -> System.out.println(instructor.getProfileDetails()));
-        }
+        report.instructorList(instructorService.getAllInstructors()).printTo(System.out);
     }
 
     private static void listAllCourses() {
-        System.out.println("\n--- All Courses ---");
-        List<Course> courses = courseService.getAllCourses();
-        if (courses.isEmpty()) {
-            System.out.println("No courses found.");
-        } else {
-            courses.forEach(course -> {
-                String instructorName = (course.getInstructor() != null) ? course.getInstructor().getFullName() : "Not Assigned";
-                System.out.printf("%s | Instructor: %s%n", course, instructorName);
-            });
-        }
+        report.courseList("--- All Courses ---", courseService.getAllCourses(), "No courses found.").printTo(System.out);
     }
 
     private static void findStudent() {
@@ -310,21 +594,19 @@ public class Main {
                 System.out.println("Status: " + (student.isActive() ? "Active" : "Deactivated"));
                 System.out.println("-------------------------");
 
-                List<Enrollment> enrollments = student.getEnrolledCourses();
+                List<Enrollment> enrollments = DataStore.getInstance().snapshotEnrollments(student);
                 if (enrollments.isEmpty()) {
                     System.out.println("Not enrolled in any courses.");
                 } else {
                     System.out.println("Enrolled Courses:");
-                    AtomicInteger totalCredits = new AtomicInteger(0);
                     enrollments.forEach(enrollment -> {
                         Course course = enrollment.getCourse();
                         System.out.printf("  - [%s] %s (%s, %d credits)\n",
                                 course.getCode(), course.getTitle(), course.getSemester(), course.getCredits());
-                        totalCredits.addAndGet(course.getCredits());
                     });
                     System.out.println("-------------------------");
                     System.out.println("Total Enrolled Courses: " + enrollments.size());
-                    System.out.println("Total Credits: " + totalCredits.get());
+                    System.out.println("Total Credits: " + student.getTotalCredits());
                 }
                 System.out.println("--- End of Profile ---");
 
@@ -399,17 +681,23 @@ public class Main {
             System.out.print("Enter Semester (FALL/INTERIM/WINTER): ");
             Semester semester = Semester.valueOf(scanner.nextLine().toUpperCase());
 
+            System.out.print("Enter Capacity (blank for unlimited): ");
+            String capacityInput = scanner.nextLine().trim();
+            int capacity = capacityInput.isEmpty() ? Course.UNLIMITED : Integer.parseInt(capacityInput);
+
             Course newCourse = new Course.Builder(code, title)
                     .credits(credits)
                     .department(dept)
                     .semester(semester)
+                    .capacity(capacity)
                     .build();
 
-            courseService.addCourse(newCourse);
-            System.out.println("✅ Course added successfully: " + title);
+            if (courseService.addCourse(newCourse)) {
+                System.out.println("✅ Course added successfully: " + title);
+            }
 
         } catch (IllegalArgumentException e) {
-             System.err.println("❌ Error: Invalid semester or number format.");
+             System.err.println("❌ Error: Invalid semester, number format or capacity.");
         } catch (Exception e) {
             System.err.println("❌ An unexpected error occurred: " + e.getMessage());
         }
@@ -424,6 +712,73 @@ public class Main {
         else results.forEach(System.out::println);
     }
 
+    private static void searchCoursesBySemester() {
+        System.out.print("Enter department to search for: ");
+        String dept = scanner.nextLine();
+        System.out.print("Enter Semester (FALL/INTERIM/WINTER): ");
+        Semester semester;
+        try {
+            semester = Semester.valueOf(scanner.nextLine().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ Error: Invalid semester.");
+            return;
+        }
+        List<Course> results = courseService.findCoursesByDepartmentAndSemester(dept, semester);
+        System.out.println("\n--- Courses in '" + dept + "' for " + semester + " ---");
+        if (results.isEmpty()) System.out.println("No courses found for this department and semester.");
+        else results.forEach(System.out::println);
+    }
+
+    private static void showCourseStatistics() {
+        System.out.println("Statistics for: 1. A Course  2. A Department  3. An Instructor  4. A Semester");
+        System.out.print("Enter your choice: ");
+        switch (scanner.nextLine().trim()) {
+            case "1" -> {
+                System.out.print("Enter Course Code: ");
+                courseService.findCourseByCode(scanner.nextLine().trim()).ifPresentOrElse(
+                        course -> report.courseStatistics(statisticsService.getCourseStatistics(course))
+                                        .printTo(System.out),
+                        () -> System.err.println("❌ Error: Course not found."));
+            }
+            case "2" -> {
+                System.out.print("Enter department: ");
+                report.courseStatistics(statisticsService.getDepartmentStatistics(scanner.nextLine().trim()))
+                      .printTo(System.out);
+            }
+            case "3" -> {
+                System.out.print("Enter Instructor Employee ID: ");
+                instructorService.findInstructorByEmployeeId(scanner.nextLine().trim()).ifPresentOrElse(
+                        instructor -> report.courseStatistics(statisticsService.getInstructorStatistics(instructor))
+                                            .printTo(System.out),
+                        () -> System.err.println("❌ Error: Instructor not found."));
+            }
+            case "4" -> {
+                System.out.print("Enter Semester (FALL/INTERIM/WINTER): ");
+                try {
+                    Semester semester = Semester.valueOf(scanner.nextLine().trim().toUpperCase());
+                    report.courseStatistics(statisticsService.getSemesterStatistics(semester)).printTo(System.out);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("❌ Error: Invalid semester.");
+                }
+            }
+            default -> System.out.println("Invalid choice.");
+        }
+    }
+
+    private static void viewCourseRoster() {
+        System.out.print("Enter Course Code: ");
+        String courseCode = scanner.nextLine();
+        Optional<Course> courseOpt = courseService.findCourseByCode(courseCode);
+        if (courseOpt.isEmpty()) {
+            System.err.println("❌ Error: Course not found.");
+            return;
+        }
+
+        Course course = courseOpt.get();
+        report.roster(course, enrollmentService.getCourseRoster(course), enrollmentService.getWaitlist(course))
+              .printTo(System.out);
+    }
+
     private static void enrollStudentInCourse() {
         System.out.print("Enter Student Registration Number: ");
         String regNo = scanner.nextLine();
@@ -442,6 +797,42 @@ public class Main {
             enrollmentService.enrollStudent(studentOpt.get(), courseOpt.get());
         } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException e) {
             System.err.println("❌ Enrollment Error: " + e.getMessage());
+        } catch (CourseFullException e) {
+            System.err.println("❌ Enrollment Error: " + e.getMessage());
+            System.out.print("Join the waitlist? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                int position = enrollmentService.joinWaitlist(studentOpt.get(), courseOpt.get());
+                if (position > 0) {
+                    System.out.println("✅ Added to the waitlist at position " + position + ".");
+                } else {
+                    System.out.println("Student is already on the waitlist or enrolled.");
+                }
+            }
+        }
+    }
+
+    private static void bulkEnroll() {
+        System.out.print("Enter path of the registration file (regNo,courseCode per line): ");
+        Path file = Path.of(scanner.nextLine().trim());
+        if (!Files.isRegularFile(file)) {
+            System.err.println("❌ Error: File not found.");
+            return;
+        }
+        System.out.print("Apply all-or-nothing (1) per student or (2) for the whole batch? ");
+        BatchAtomicity atomicity = scanner.nextLine().trim().equals("2") ? BatchAtomicity.PER_BATCH : BatchAtomicity.PER_STUDENT;
+
+        List<EnrollmentRequest> requests = ioService.readEnrollmentRequests(file);
+        BatchEnrollmentResult result = enrollmentService.enrollBatch(requests, atomicity);
+        System.out.printf("Processed %d request(s) for %d student(s): %d enrolled, %d failed in %.1f ms (%.0f enrollments/s)%n",
+                result.requested(), result.students(), result.enrolled().size(), result.failures().size(),
+                result.elapsedNanos() / 1_000_000.0, result.enrollmentsPerSecond());
+        int shown = 0;
+        for (BatchEnrollmentResult.Failure failure : result.failures()) {
+            if (shown++ == 20) {
+                System.out.println("  ... and " + (result.failures().size() - 20) + " more");
+                break;
+            }
+            System.out.println("  ❌ " + failure.request().regNo() + ", " + failure.request().courseCode() + ": " + failure.reason());
         }
     }
 
@@ -495,6 +886,95 @@ public class Main {
         }
     }
 
+    private static void handleAnalyticsMenu() {
+        System.out.println("\n-- Enrollment Analytics --");
+        System.out.println("1. Grade Distribution for a Course");
+        System.out.println("2. Credit Load Histogram");
+        System.out.println("3. Pass Rate by Department");
+        System.out.print("Enter your choice: ");
+        switch (scanner.nextLine().trim()) {
+            case "1" -> {
+                System.out.print("Enter Course Code: ");
+                courseService.findCourseByCode(scanner.nextLine().trim()).ifPresentOrElse(
+                        course -> report.gradeDistribution(course, analyticsService.getGradeDistribution(course))
+                                        .printTo(System.out),
+                        () -> System.err.println("❌ Error: Course not found."));
+            }
+            case "2" -> report.creditLoads(analyticsService.getCreditLoadHistogram()).printTo(System.out);
+            case "3" -> report.passRates(analyticsService.getDepartmentPassRates()).printTo(System.out);
+            default -> System.out.println("Invalid choice.");
+        }
+    }
+
+    private static void showRankings() {
+        Optional<RankingScope> scopeOpt = chooseRankingScope();
+        if (scopeOpt.isEmpty()) {
+            return;
+        }
+        RankingScope scope = scopeOpt.get();
+        System.out.println("\n-- Rankings: " + scope + " (" + rankingService.getRankedCount(scope) + " ranked) --");
+        System.out.println("1. Top Students");
+        System.out.println("2. Find a Student's Rank");
+        System.out.println("3. Dean's List (GPA " + DEANS_LIST_GPA + " and above)");
+        System.out.println("4. Academic Probation (GPA below " + PROBATION_GPA + ")");
+        System.out.print("Enter your choice: ");
+        switch (scanner.nextLine().trim()) {
+            case "1" -> {
+                System.out.print("How many students? ");
+                try {
+                    int k = Integer.parseInt(scanner.nextLine().trim());
+                    report.standings("--- Top " + k + ": " + scope + " ---",
+                            rankingService.getTopStudents(scope, k), "No graded students in this scope.")
+                          .printTo(System.out);
+                } catch (NumberFormatException e) {
+                    System.err.println("❌ Error: Invalid number.");
+                }
+            }
+            case "2" -> {
+                System.out.print("Enter student registration number: ");
+                String regNo = scanner.nextLine().trim();
+                rankingService.findStanding(scope, regNo).ifPresentOrElse(
+                        standing -> report.standing(standing).printTo(System.out),
+                        () -> System.out.println("❌ " + regNo + " has no graded courses in this scope."));
+            }
+            case "3" -> report.standings("--- Dean's List: " + scope + " ---",
+                    rankingService.findStudentsWithGpaAtLeast(scope, DEANS_LIST_GPA), "Nobody qualifies.")
+                    .printTo(System.out);
+            case "4" -> report.standings("--- Academic Probation: " + scope + " ---",
+                    rankingService.findStudentsWithGpaBelow(scope, PROBATION_GPA), "Nobody is on probation.")
+                    .printTo(System.out);
+            default -> System.out.println("Invalid choice.");
+        }
+    }
+
+    private static Optional<RankingScope> chooseRankingScope() {
+        System.out.println("\nRank over: 1. All Students  2. A Department  3. A Semester");
+        System.out.print("Enter your choice: ");
+        switch (scanner.nextLine().trim()) {
+            case "1":
+                return Optional.of(RankingScope.all());
+            case "2":
+                System.out.print("Enter department: ");
+                String dept = scanner.nextLine();
+                if (dept.isBlank()) {
+                    System.err.println("❌ Error: Department is required.");
+                    return Optional.empty();
+                }
+                return Optional.of(RankingScope.department(dept));
+            case "3":
+                System.out.print("Enter Semester (FALL/INTERIM/WINTER): ");
+                try {
+                    return Optional.of(RankingScope.semester(Semester.valueOf(scanner.nextLine().trim().toUpperCase())));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("❌ Error: Invalid semester.");
+                    return Optional.empty();
+                }
+            default:
+                System.out.println("Invalid choice.");
+                return Optional.empty();
+        }
+    }
+
     private static void printStudentTranscript() {
         System.out.print("Enter student registration number for transcript: ");
         String regNo = scanner.nextLine();
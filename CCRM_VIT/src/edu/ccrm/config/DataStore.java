@@ -1,34 +1,630 @@
 package edu.ccrm.config;
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
 import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
 import edu.ccrm.domain.Student;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A Singleton class to hold all in-memory application data.
  * This ensures a single source of truth for students, courses, etc.
+ *
+ * The tables are ConcurrentHashMaps, so lookups never block and several
+ * registrar threads can work against the store at the same time. Compound
+ * updates (check-then-act on one record) take the stripe lock for the
+ * record's key, so writers only contend when their keys hash to the same stripe.
+ *
+ * In read-mostly mode a {@link StudentSource} backs the student table. Students
+ * missing from the table are built from the source on first lookup and kept in
+ * a bounded LRU cache. A student that is added or changed through the services
+ * is pinned: it moves into the table for good, because the source would no
+ * longer reproduce it. Heap use then follows the working set and the changes.
+ * An evicted student may be built again as a second instance; only one of them
+ * can be pinned, and a change through any other is refused.
  */
 public class DataStore {
-    // 1. The single, private, static instance of the class
-    private static DataStore instance;
+    // Number of write lock stripes; a power of two so the index is a simple mask.
+    private static final int STRIPE_COUNT = 64;
 
-    // Data maps to act as in-memory tables
-    public final Map<String, Student> students = new HashMap<>();
-    public final Map<String, Course> courses = new HashMap<>();
-    public final Map<String, Instructor> instructors = new HashMap<>();
+    // In-memory tables, keyed by regNo, course code and employee ID respectively
+    private final ConcurrentMap<String, Student> students = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Course> courses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Instructor> instructors = new ConcurrentHashMap<>();
 
-    // 2. A private constructor to prevent direct instantiation
+    // Reverse index: course code -> (regNo -> enrollment), so rosters don't scan every student
+    private final ConcurrentMap<String, ConcurrentMap<String, Enrollment>> rosters = new ConcurrentHashMap<>();
+
+    // FIFO waitlists: course code -> regNos in the order they joined
+    private final ConcurrentMap<String, Deque<String>> waitlists = new ConcurrentHashMap<>();
+
+    // Secondary course indexes. The lists are immutable and swapped on every write,
+    // so readers get a snapshot without copying or locking. Writes go through courseIndexLock.
+    private final ConcurrentMap<String, List<Course>> coursesByDepartment = new ConcurrentHashMap<>();
+    private volatile Map<Semester, List<Course>> coursesBySemester = new EnumMap<>(Semester.class);
+    private final Object courseIndexLock = new Object();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+
+    // Read-mostly mode: students not in the table come from the source, through an access-ordered LRU cache
+    private volatile StudentSource studentSource;
+    private volatile Map<String, Student> studentCache = Map.of(); // guarded by itself once a source is attached
+
+    // Observers of service-layer changes (journal, statistics, ...)
+    private final List<MutationListener> listeners = new CopyOnWriteArrayList<>();
+    private final MutationListener dispatcher = new Dispatcher();
+
+    // A private constructor to prevent direct instantiation
     private DataStore() {
-        // Private constructor to prevent anyone else from creating an instance.
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // The holder class is only initialised on first use, and class initialisation
+    // is guaranteed by the JVM to publish the instance safely to every thread.
+    private static final class Holder {
+        private static final DataStore INSTANCE = new DataStore();
     }
 
-    // 3. A public, static method to get the single instance
     public static DataStore getInstance() {
-        if (instance == null) {
-            instance = new DataStore();
+        return Holder.INSTANCE;
+    }
+
+    public void addListener(MutationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MutationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns a listener that forwards each event to every registered listener.
+     * The services report their changes through it.
+     */
+    public MutationListener mutations() {
+        return dispatcher;
+    }
+
+    /**
+     * Returns the write lock guarding the record with the given key.
+     * Callers must release it in a finally block.
+     * @param key A regNo, course code or employee ID
+     * @return The stripe lock for that key
+     */
+    public ReentrantLock lockFor(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    /**
+     * Runs the action while holding the stripe locks of all the given keys,
+     * so changes to several records are checked and applied as one step.
+     * Locks are taken in stripe order, so two threads locking overlapping
+     * sets can never deadlock.
+     */
+    public void withStripesFor(Collection<String> keys, Runnable action) {
+        withLocks(locksFor(keys), action);
+    }
+
+    /**
+     * Runs the action while holding every stripe lock, which keeps out every
+     * service-layer change, e.g. while a listener builds its view from the store.
+     */
+    public void withAllStripes(Runnable action) {
+        withLocks(List.of(stripes), action);
+    }
+
+    private static void withLocks(List<ReentrantLock> locks, Runnable action) {
+        locks.forEach(ReentrantLock::lock);
+        try {
+            action.run();
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    // The distinct stripe locks for a set of keys, in stripe order
+    private List<ReentrantLock> locksFor(Collection<String> keys) {
+        boolean[] needed = new boolean[STRIPE_COUNT];
+        for (String key : keys) {
+            needed[stripeIndex(key)] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            if (needed[i]) {
+                locks.add(stripes[i]);
+            }
+        }
+        return locks;
+    }
+
+    private static int stripeIndex(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (STRIPE_COUNT - 1);
+    }
+
+    /**
+     * Empties every table, index and waitlist and leaves read-mostly mode.
+     * Listeners stay registered. Used to reload the store in place, e.g.
+     * between benchmark runs; nothing else may be using the store meanwhile.
+     */
+    public void clear() {
+        studentSource = null;
+        studentCache = Map.of();
+        students.clear();
+        instructors.clear();
+        rosters.clear();
+        waitlists.clear();
+        synchronized (courseIndexLock) {
+            courses.clear();
+            coursesByDepartment.clear();
+            coursesBySemester = new EnumMap<>(Semester.class);
+        }
+    }
+
+    /**
+     * Switches to read-mostly mode. Call this at startup, before any student is added.
+     * @param source Where students missing from the table are built from
+     * @param cacheCapacity How many unchanged students to keep built
+     */
+    public void attachStudentSource(StudentSource source, int cacheCapacity) {
+        studentCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Student> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        studentSource = source;
+    }
+
+    // --- Students ---
+    public Student getStudent(String regNo) {
+        if (regNo == null) {
+            return null;
+        }
+        Student student = students.get(regNo);
+        if (student != null || studentSource == null) {
+            return student;
+        }
+        return loadStudent(regNo);
+    }
+
+    private Student loadStudent(String regNo) {
+        Student student = cachedStudent(regNo);
+        if (student != null) {
+            return student;
+        }
+        // Build under the stripe lock so concurrent misses on one regNo share one instance
+        ReentrantLock lock = lockFor(regNo);
+        lock.lock();
+        try {
+            student = students.get(regNo);
+            if (student == null) {
+                student = cachedStudent(regNo);
+            }
+            if (student == null) {
+                student = studentSource.load(regNo);
+                if (student != null) {
+                    synchronized (studentCache) {
+                        studentCache.put(regNo, student);
+                    }
+                }
+            }
+            return student;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Student cachedStudent(String regNo) {
+        synchronized (studentCache) {
+            return studentCache.get(regNo);
+        }
+    }
+
+    /**
+     * Call before changing a student, while holding the student's stripe lock.
+     * In read-mostly mode this moves a student built from the source into the
+     * table, so it can no longer be evicted, and indexes its enrollments in the
+     * course rosters.
+     * @throws IllegalStateException if another instance of this student is the
+     *         current one, e.g. because this one was evicted and rebuilt; a change
+     *         made through it would be lost
+     */
+    public void pinForUpdate(Student student) {
+        if (studentSource == null) {
+            return;
+        }
+        Student current = students.putIfAbsent(student.getRegNo(), student);
+        if (current == student) {
+            return;
+        }
+        if (current != null) {
+            throw new IllegalStateException("Student " + student.getRegNo()
+                    + " was reloaded since this copy was read; look the student up again");
+        }
+        synchronized (studentCache) {
+            studentCache.remove(student.getRegNo());
+        }
+        student.forEachEnrollment(this::addToRoster);
+    }
+
+    /**
+     * Adds a new student unless the regNo is taken, in the table or in the source.
+     * @return false if a student with that regNo already exists
+     */
+    public boolean addStudent(Student student) {
+        StudentSource source = studentSource;
+        if (source != null && source.contains(student.getRegNo())) {
+            return false;
+        }
+        return students.putIfAbsent(student.getRegNo(), student) == null;
+    }
+
+    /**
+     * Replaces an existing student record; does nothing if the regNo is unknown.
+     * In read-mostly mode the record must be the current instance, as for
+     * {@link #pinForUpdate}, since replacing it would drop its enrollments.
+     * @return true if a record was replaced
+     */
+    public boolean replaceStudent(Student student) {
+        StudentSource source = studentSource;
+        if (source == null) {
+            return students.replace(student.getRegNo(), student) != null;
+        }
+        if (!students.containsKey(student.getRegNo()) && !source.contains(student.getRegNo())) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            pinForUpdate(student);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies a student's enrollments under the student's stripe lock, for
+     * callers that iterate them while other threads may be enrolling.
+     * @return Immutable list of the enrollments, in enrollment order
+     */
+    public List<Enrollment> snapshotEnrollments(Student student) {
+        ReentrantLock lock = lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            return List.copyOf(student.getEnrolledCourses());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * In read-mostly mode this builds every student that is not resident, so
+     * prefer {@link #getStudent} and {@link #studentCount} where they will do.
+     * @return A read-only, weakly consistent view of all students
+     */
+    public Collection<Student> students() {
+        StudentSource source = studentSource;
+        if (source == null) {
+            return Collections.unmodifiableCollection(students.values());
+        }
+        List<Student> all = new ArrayList<>(source.size() + students.size());
+        source.forEachRegNo(regNo -> {
+            if (!students.containsKey(regNo)) {
+                // Don't cache: a full scan would only flush the working set
+                Student cached = cachedStudent(regNo);
+                all.add(cached != null ? cached : source.load(regNo));
+            }
+        });
+        all.addAll(students.values());
+        return Collections.unmodifiableList(all);
+    }
+
+    public int studentCount() {
+        StudentSource source = studentSource;
+        if (source == null) {
+            return students.size();
+        }
+        int count = source.size();
+        for (String regNo : students.keySet()) {
+            if (!source.contains(regNo)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // --- Courses ---
+    public Course getCourse(String code) {
+        return code == null ? null : courses.get(code);
+    }
+
+    /**
+     * Adds a new course unless the code is taken, and keeps the department and
+     * semester indexes in step.
+     * @return false if a course with that code already exists
+     */
+    public boolean addCourse(Course course) {
+        synchronized (courseIndexLock) {
+            if (courses.putIfAbsent(course.getCode(), course) != null) {
+                return false;
+            }
+            indexCourse(course);
+            return true;
+        }
+    }
+
+    /**
+     * @return Immutable snapshot of the courses in a department, matched case-insensitively
+     */
+    public List<Course> getCoursesByDepartment(String department) {
+        if (department == null) {
+            return List.of();
+        }
+        return coursesByDepartment.getOrDefault(departmentKey(department), List.of());
+    }
+
+    /**
+     * @return Immutable snapshot of the courses offered in a semester
+     */
+    public List<Course> getCoursesBySemester(Semester semester) {
+        return coursesBySemester.getOrDefault(semester, List.of());
+    }
+
+    /**
+     * Filters the department bucket, which is far smaller than the catalog, by semester.
+     * @return Immutable list of the matching courses
+     */
+    public List<Course> getCoursesByDepartmentAndSemester(String department, Semester semester) {
+        List<Course> matches = new ArrayList<>();
+        for (Course course : getCoursesByDepartment(department)) {
+            if (course.getSemester() == semester) {
+                matches.add(course);
+            }
+        }
+        return List.copyOf(matches);
+    }
+
+    // Must be called while holding courseIndexLock
+    private void indexCourse(Course course) {
+        if (course.getDepartment() != null) {
+            coursesByDepartment.compute(departmentKey(course.getDepartment()),
+                    (key, list) -> with(list, course));
+        }
+        if (course.getSemester() != null) {
+            Map<Semester, List<Course>> updated = new EnumMap<>(coursesBySemester);
+            updated.put(course.getSemester(), with(updated.get(course.getSemester()), course));
+            coursesBySemester = updated;
+        }
+    }
+
+    private static String departmentKey(String department) {
+        return department.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Course> with(List<Course> list, Course course) {
+        List<Course> copy = (list == null) ? new ArrayList<>() : new ArrayList<>(list);
+        copy.add(course);
+        return List.copyOf(copy);
+    }
+
+    /**
+     * @return A read-only, weakly consistent view of all courses
+     */
+    public Collection<Course> courses() {
+        return Collections.unmodifiableCollection(courses.values());
+    }
+
+    // --- Instructors ---
+    public Instructor getInstructor(String employeeId) {
+        return employeeId == null ? null : instructors.get(employeeId);
+    }
+
+    public void putInstructor(Instructor instructor) {
+        instructors.put(instructor.getEmployeeId(), instructor);
+    }
+
+    /**
+     * @return A read-only, weakly consistent view of all instructors
+     */
+    public Collection<Instructor> instructors() {
+        return Collections.unmodifiableCollection(instructors.values());
+    }
+
+    // --- Course rosters (reverse enrollment index) ---
+    public void addToRoster(Enrollment enrollment) {
+        rosters.computeIfAbsent(enrollment.getCourse().getCode(), code -> new ConcurrentHashMap<>())
+                .put(enrollment.getStudent().getRegNo(), enrollment);
+    }
+
+    public void removeFromRoster(Enrollment enrollment) {
+        ConcurrentMap<String, Enrollment> roster = rosters.get(enrollment.getCourse().getCode());
+        if (roster != null) {
+            roster.remove(enrollment.getStudent().getRegNo(), enrollment);
+        }
+    }
+
+    /**
+     * @return A snapshot of the enrollments in the given course, in no particular order
+     */
+    public List<Enrollment> getRoster(String courseCode) {
+        ConcurrentMap<String, Enrollment> roster = rosters.get(courseCode);
+        StudentSource source = studentSource;
+        if (source == null) {
+            return roster == null ? List.of() : List.copyOf(roster.values());
+        }
+        // The index only covers resident students; the rest are enrolled as the source says
+        Map<String, Enrollment> merged = (roster == null) ? new HashMap<>() : new HashMap<>(roster);
+        source.forEachEnrolledRegNo(courseCode, regNo -> {
+            if (!merged.containsKey(regNo) && !students.containsKey(regNo)) {
+                Student student = getStudent(regNo);
+                if (student != null) {
+                    student.findEnrollment(courseCode).ifPresent(e -> merged.put(regNo, e));
+                }
+            }
+        });
+        return List.copyOf(merged.values());
+    }
+
+    public int getRosterSize(String courseCode) {
+        ConcurrentMap<String, Enrollment> roster = rosters.get(courseCode);
+        int size = (roster == null) ? 0 : roster.size();
+        StudentSource source = studentSource;
+        if (source != null) {
+            size += source.enrolledCount(courseCode);
+            if (!students.isEmpty()) {
+                // Resident students are counted by the index, as they are now, not as the source has them
+                int[] resident = new int[1];
+                source.forEachEnrolledRegNo(courseCode, regNo -> {
+                    if (students.containsKey(regNo)) resident[0]++;
+                });
+                size -= resident[0];
+            }
+        }
+        return size;
+    }
+
+    // --- Course waitlists ---
+
+    /**
+     * Appends a student to a course's waitlist unless they are already on it.
+     * @return The student's 1-based position, or 0 if they were already waiting
+     */
+    public int addToWaitlist(String courseCode, String regNo) {
+        Deque<String> waitlist = waitlists.computeIfAbsent(courseCode, code -> new ArrayDeque<>());
+        synchronized (waitlist) {
+            if (waitlist.contains(regNo)) {
+                return 0;
+            }
+            waitlist.addLast(regNo);
+            return waitlist.size();
+        }
+    }
+
+    /**
+     * Removes and returns the student at the head of the waitlist.
+     * @return A regNo, or null if nobody is waiting
+     */
+    public String pollWaitlist(String courseCode) {
+        Deque<String> waitlist = waitlists.get(courseCode);
+        if (waitlist == null) {
+            return null;
+        }
+        synchronized (waitlist) {
+            return waitlist.pollFirst();
+        }
+    }
+
+    /**
+     * Puts a student polled from the waitlist back at its head, e.g. when the
+     * seat they were promoted into was taken first.
+     */
+    public void returnToWaitlist(String courseCode, String regNo) {
+        Deque<String> waitlist = waitlists.computeIfAbsent(courseCode, code -> new ArrayDeque<>());
+        synchronized (waitlist) {
+            waitlist.addFirst(regNo);
+        }
+    }
+
+    public boolean removeFromWaitlist(String courseCode, String regNo) {
+        Deque<String> waitlist = waitlists.get(courseCode);
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (waitlist) {
+            return waitlist.remove(regNo);
+        }
+    }
+
+    /**
+     * @return A snapshot of the regNos waiting for the course, head first
+     */
+    public List<String> getWaitlist(String courseCode) {
+        Deque<String> waitlist = waitlists.get(courseCode);
+        if (waitlist == null) {
+            return List.of();
+        }
+        synchronized (waitlist) {
+            return List.copyOf(waitlist);
+        }
+    }
+
+    private final class Dispatcher implements MutationListener {
+        @Override
+        public void studentAdded(Student student) {
+            for (MutationListener l : listeners) l.studentAdded(student);
+        }
+
+        @Override
+        public void studentUpdated(Student student) {
+            for (MutationListener l : listeners) l.studentUpdated(student);
+        }
+
+        @Override
+        public void instructorAdded(Instructor instructor) {
+            for (MutationListener l : listeners) l.instructorAdded(instructor);
+        }
+
+        @Override
+        public void courseAdded(Course course) {
+            for (MutationListener l : listeners) l.courseAdded(course);
+        }
+
+        @Override
+        public void instructorAssigned(Course course, Instructor instructor) {
+            for (MutationListener l : listeners) l.instructorAssigned(course, instructor);
+        }
+
+        @Override
+        public void enrolled(Enrollment enrollment) {
+            for (MutationListener l : listeners) l.enrolled(enrollment);
+        }
+
+        @Override
+        public void enrolledAll(List<Enrollment> enrollments) {
+            for (MutationListener l : listeners) l.enrolledAll(enrollments);
+        }
+
+        @Override
+        public void waitlisted(Course course, Student student) {
+            for (MutationListener l : listeners) l.waitlisted(course, student);
+        }
+
+        @Override
+        public void unenrolled(Enrollment enrollment) {
+            for (MutationListener l : listeners) l.unenrolled(enrollment);
+        }
+
+        @Override
+        public void gradeAssigned(Enrollment enrollment, Grade previous) {
+            for (MutationListener l : listeners) l.gradeAssigned(enrollment, previous);
+        }
+
+        @Override
+        public void afterUnlock() {
+            for (MutationListener l : listeners) l.afterUnlock();
         }
-        return instance;
     }
-}
\ No newline at end of file
+}
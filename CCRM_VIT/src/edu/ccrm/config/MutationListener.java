@@ -0,0 +1,64 @@
+package edu.ccrm.config;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
+import java.util.List;
+
+/**
+ * Receives every successful change made through the service layer.
+ * Listeners are registered on the {@link DataStore}. The services call them
+ * after the change is applied, on the calling thread. Changes to one student
+ * are made while that student's stripe lock is held, so they arrive in order.
+ * Since other writers may be waiting on that lock, slow work such as disk I/O
+ * belongs in {@link #afterUnlock}.
+ *
+ * A listener that keeps a view derived from the store, such as rankings or
+ * statistics, builds it on its first query or on an explicit rebuild, reading
+ * the store inside {@link DataStore#withAllStripes} so no change slips past
+ * the build. Until then it ignores events, since the build will read their
+ * effect from the store.
+ *
+ * All methods default to doing nothing; implement only the ones you need.
+ */
+public interface MutationListener {
+    default void studentAdded(Student student) {}
+
+    default void studentUpdated(Student student) {}
+
+    default void instructorAdded(Instructor instructor) {}
+
+    default void courseAdded(Course course) {}
+
+    default void instructorAssigned(Course course, Instructor instructor) {}
+
+    default void enrolled(Enrollment enrollment) {}
+
+    /**
+     * A group of enrollments made together by a batch. Override this to handle
+     * them in one go; by default each one is passed to {@link #enrolled}.
+     */
+    default void enrolledAll(List<Enrollment> enrollments) {
+        for (Enrollment enrollment : enrollments) {
+            enrolled(enrollment);
+        }
+    }
+
+    default void waitlisted(Course course, Student student) {}
+
+    default void unenrolled(Enrollment enrollment) {}
+
+    /**
+     * @param previous The grade before this change, or null if it was ungraded
+     */
+    default void gradeAssigned(Enrollment enrollment, Grade previous) {}
+
+    /**
+     * Called on the same thread once the service has released the locks it held
+     * while dispatching its changes. A listener that only queued work for those
+     * changes finishes it here.
+     */
+    default void afterUnlock() {}
+}
@@ -0,0 +1,37 @@
+package edu.ccrm.config;
+
+import edu.ccrm.domain.Student;
+import java.util.function.Consumer;
+
+/**
+ * Read-only backing store that the {@link DataStore} falls back to for students
+ * that are not resident in memory, such as a memory-mapped snapshot file.
+ * Implementations must be safe to call from several threads.
+ */
+public interface StudentSource {
+    /**
+     * Builds a new Student, with its enrollments, from the source.
+     * @return The student, or null if the source has no such registration number
+     */
+    Student load(String regNo);
+
+    boolean contains(String regNo);
+
+    int size();
+
+    /**
+     * Calls the action with every registration number in the source.
+     */
+    void forEachRegNo(Consumer<String> action);
+
+    /**
+     * Calls the action with the registration number of every student the source
+     * has enrolled in the course.
+     */
+    void forEachEnrolledRegNo(String courseCode, Consumer<String> action);
+
+    /**
+     * @return How many students the source has enrolled in the course
+     */
+    int enrolledCount(String courseCode);
+}
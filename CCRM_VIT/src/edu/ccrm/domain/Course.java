@@ -1,12 +1,20 @@
 package edu.ccrm.domain;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Course {
+    // Capacity value meaning the course takes any number of students
+    public static final int UNLIMITED = 0;
+
     private final String code;
     private final String title;
     private final int credits;
     private Instructor instructor;
     private Semester semester;
     private String department; // Added for filtering functionality
+    private final int capacity;
+    // Claimed with compare-and-set, so concurrent enrollments never overbook without taking a lock
+    private final AtomicInteger seatsTaken = new AtomicInteger();
 
     private Course(Builder builder) {
         this.code = builder.code;
@@ -15,11 +23,12 @@ public class Course {
         this.instructor = builder.instructor;
         this.semester = builder.semester;
         this.department = builder.department;
+        this.capacity = builder.capacity;
     }
 
     @Override
     public String toString() {
-        return String.format("Course: [%s] %s (%d credits)", code, title, credits);
+        return "Course: [" + code + "] " + title + " (" + credits + " credits)";
     }
 
     // --- Getters ---
@@ -49,6 +58,51 @@ public class Course {
         return department;
     }
     
+    /**
+     * @return Maximum number of students, or {@link #UNLIMITED}
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSeatsTaken() {
+        return seatsTaken.get();
+    }
+
+    public boolean hasCapacityLimit() {
+        return capacity != UNLIMITED;
+    }
+
+    // --- Seat allocation ---
+
+    /**
+     * Atomically takes one seat if any are left.
+     * @return false if the course is full
+     */
+    public boolean tryClaimSeat() {
+        while (true) {
+            int taken = seatsTaken.get();
+            if (capacity != UNLIMITED && taken >= capacity) {
+                return false;
+            }
+            if (seatsTaken.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void releaseSeat() {
+        seatsTaken.decrementAndGet();
+    }
+
+    /**
+     * Sets the seat count directly, for enrollments loaded without going
+     * through {@link #tryClaimSeat}, e.g. from a mapped snapshot.
+     */
+    public void restoreSeatsTaken(int taken) {
+        seatsTaken.set(taken);
+    }
+
     // --- Setters for mutable fields ---
     public void setInstructor(Instructor instructor){
         this.instructor = instructor;
@@ -62,6 +116,7 @@ public class Course {
         private Instructor instructor;
         private Semester semester;
         private String department;
+        private int capacity = UNLIMITED;
 
         public Builder(String code, String title) {
             this.code = code;
@@ -88,6 +143,14 @@ public class Course {
             return this;
         }
 
+        public Builder capacity(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
         public Course build() {
             return new Course(this);
         }
@@ -8,6 +8,9 @@ import java.time.format.DateTimeFormatter;
  * This class links domain models and includes a grade and a timestamp.
  */
 public class Enrollment {
+    // Formatters are immutable and thread-safe, so one instance serves every call
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     private final Student student;
     private final Course course;
     private Grade grade; // Can be null until graded
@@ -46,7 +49,9 @@ public class Enrollment {
      * @param grade The Grade enum value.
      */
     public void setGrade(Grade grade) {
+        Grade previous = this.grade;
         this.grade = grade;
+        student.gradeChanged(this, previous);
     }
     
     /**
@@ -55,14 +60,31 @@ public class Enrollment {
      */
     @Override
     public String toString() {
-        String gradeString = (grade != null) ? grade.toString() : "Not Graded";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        
-        return String.format("Course: %-25s | Grade: %-12s | Credits: %d | Enrolled on: %s",
-                course.getTitle() + " (" + course.getCode() + ")",
-                gradeString,
-                course.getCredits(),
-                enrollmentDate.format(formatter)
-        );
+        return appendTo(new StringBuilder(96)).toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to out, so reports can
+     * build many lines in one buffer without a String per line.
+     * @return out, for chaining
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        int start = out.length();
+        out.append("Course: ").append(course.getTitle()).append(" (").append(course.getCode()).append(')');
+        pad(out, start + 8 + 25);
+        out.append(" | Grade: ");
+        int gradeStart = out.length();
+        out.append((grade != null) ? grade.name() : "Not Graded");
+        pad(out, gradeStart + 12);
+        out.append(" | Credits: ").append(course.getCredits()).append(" | Enrolled on: ");
+        DATE_FORMAT.formatTo(enrollmentDate, out);
+        return out;
+    }
+
+    // Left-justifies like %-Ns: spaces up to the given length, never truncating
+    private static void pad(StringBuilder out, int length) {
+        while (out.length() < length) {
+            out.append(' ');
+        }
     }
 }
\ No newline at end of file
@@ -21,7 +21,7 @@ public class Instructor extends Person {
     
     @Override
     public String getProfileDetails() {
-        return String.format("Instructor: %s (ID: %s, Dept: %s)", getFullName(), this.employeeId, this.department);
+        return "Instructor: " + getFullName() + " (ID: " + this.employeeId + ", Dept: " + this.department + ")";
     }
 
     public void assignCourse(Course course) {
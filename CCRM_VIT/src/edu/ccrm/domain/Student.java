@@ -1,39 +1,151 @@
 package edu.ccrm.domain;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public class Student extends Person {
     private String regNo;
     private boolean isActive;
-    private List<Enrollment> enrolledCourses;
+    // Keyed by course code; insertion order keeps enrollments in the order they were made
+    private Map<String, Enrollment> enrolledCourses;
+    private Collection<Enrollment> enrolledCoursesView; // read-only view handed out by getEnrolledCourses()
+
+    // Running totals kept in step with enrolledCourses, so credit and GPA checks are O(1)
+    private int totalCredits;
+    // Changed under the student's DataStore lock, but read without it (GPA in reports and
+    // the request server), so both totals are published together as one immutable value
+    private volatile GradeTotals gradeTotals = GradeTotals.NONE;
+
+    private record GradeTotals(int credits, double qualityPoints) {
+        static final GradeTotals NONE = new GradeTotals(0, 0.0);
+    }
 
     // Constructor updated: id parameter removed
     public Student(String fullName, String email, LocalDate dateOfBirth, String regNo) {
         super(fullName, email, dateOfBirth); // super() call updated
         this.regNo = regNo;
         this.isActive = true;
-        this.enrolledCourses = new ArrayList<>();
+        this.enrolledCourses = new LinkedHashMap<>();
+        this.enrolledCoursesView = Collections.unmodifiableCollection(enrolledCourses.values());
     }
 
     @Override
     public String getProfileDetails() {
-        return String.format("Student: %s (Reg No: %s)", getFullName(), regNo);
+        return "Student: " + getFullName() + " (Reg No: " + regNo + ")";
     }
 
     // --- Methods to manage enrollments ---
     public void enrollCourse(Enrollment e) {
-        this.enrolledCourses.add(e);
+        Enrollment replaced = this.enrolledCourses.put(e.getCourse().getCode(), e);
+        if (replaced != null) {
+            totalCredits -= replaced.getCourse().getCredits();
+            addGradePoints(replaced.getGrade(), replaced.getCourse().getCredits(), -1);
+        }
+        totalCredits += e.getCourse().getCredits();
+        addGradePoints(e.getGrade(), e.getCourse().getCredits(), 1);
     }
 
     public void unenrollCourse(Enrollment e) {
-        this.enrolledCourses.remove(e);
+        if (this.enrolledCourses.remove(e.getCourse().getCode(), e)) {
+            totalCredits -= e.getCourse().getCredits();
+            addGradePoints(e.getGrade(), e.getCourse().getCredits(), -1);
+        }
+    }
+
+    /**
+     * Called by Enrollment.setGrade so the GPA totals follow grade changes.
+     * Enrollments that no longer belong to this student are ignored.
+     */
+    void gradeChanged(Enrollment e, Grade previous) {
+        if (this.enrolledCourses.get(e.getCourse().getCode()) != e) {
+            return;
+        }
+        addGradePoints(previous, e.getCourse().getCredits(), -1);
+        addGradePoints(e.getGrade(), e.getCourse().getCredits(), 1);
+    }
+
+    private void addGradePoints(Grade grade, int credits, int sign) {
+        if (grade == null) {
+            return;
+        }
+        GradeTotals totals = gradeTotals;
+        gradeTotals = new GradeTotals(totals.credits() + sign * credits,
+                totals.qualityPoints() + sign * grade.getGradePoint() * credits);
     }
 
     // --- Getters and Setters ---
-    public List<Enrollment> getEnrolledCourses() {
-        return List.copyOf(enrolledCourses);
+
+    /**
+     * Returns a read-only live view of this student's enrollments; no copy is made.
+     * The view reflects later enrollment changes, so callers that iterate it while
+     * another thread may be enrolling the same student should hold the student's
+     * DataStore lock, or copy it first.
+     * @return Unmodifiable view of the enrollments, in enrollment order
+     */
+    public Collection<Enrollment> getEnrolledCourses() {
+        return enrolledCoursesView;
+    }
+
+    /**
+     * Visits each enrollment in order without exposing or copying the list.
+     * @param action The action to run for each enrollment
+     */
+    public void forEachEnrollment(Consumer<? super Enrollment> action) {
+        for (Enrollment e : enrolledCourses.values()) {
+            action.accept(e);
+        }
+    }
+
+    /**
+     * Looks up the enrollment for a course by its code in constant time.
+     * @param courseCode The course code
+     * @return The enrollment, or empty if the student is not enrolled in that course
+     */
+    public Optional<Enrollment> findEnrollment(String courseCode) {
+        return Optional.ofNullable(enrolledCourses.get(courseCode));
+    }
+
+    public boolean isEnrolledIn(String courseCode) {
+        return enrolledCourses.containsKey(courseCode);
+    }
+
+    public int getEnrollmentCount() {
+        return enrolledCourses.size();
+    }
+
+    /**
+     * @return Sum of credits over all enrolled courses, graded or not
+     */
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    /**
+     * @return Sum of credits over graded courses only
+     */
+    public int getGradedCredits() {
+        return gradeTotals.credits();
+    }
+
+    /**
+     * @return Sum of grade point x credits over graded courses
+     */
+    public double getQualityPoints() {
+        return gradeTotals.qualityPoints();
+    }
+
+    /**
+     * Safe to call without the student's lock; credits and points always come from the same update.
+     * @return Credit-weighted GPA over graded courses, or 0.0 if nothing is graded yet
+     */
+    public double getGpa() {
+        GradeTotals totals = gradeTotals;
+        return (totals.credits() == 0) ? 0.0 : totals.qualityPoints() / totals.credits();
     }
 
     public String getRegNo() {
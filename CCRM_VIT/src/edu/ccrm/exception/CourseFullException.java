@@ -0,0 +1,9 @@
+package edu.ccrm.exception;
+
+// Checked exception thrown when a course has no seats left.
+public class CourseFullException extends Exception {
+	private static final long serialVersionUID = 1L;
+    public CourseFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,240 @@
+package edu.ccrm.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes and extracts single-file compressed backups using only java.util.zip.
+ *
+ * Every data file is cut into segments of {@value #SEGMENT_SIZE} bytes, and
+ * the segments are gzip-compressed in parallel, so even one very large file
+ * keeps every core busy. Each compressed segment becomes a STORED zip entry
+ * named {@code <file>.<segment>.gz}. The gzip bytes are not compressed a second
+ * time, and their size and CRC are known before the entry is written. Segments
+ * are written in file order, and only a bounded window of them is held in
+ * memory at once.
+ */
+final class BackupArchive {
+    static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private BackupArchive() {
+    }
+
+    /**
+     * One compressed segment, ready to be written as a zip entry.
+     */
+    private record Segment(String entryName, FileTime modified, byte[] gzip, long crc) {}
+
+    private record SegmentTask(Path file, String entryName, FileTime modified, long offset, long length) {}
+
+    /**
+     * Compresses every regular file under dataDir into a zip at target.
+     * @return Number and total size of the files archived
+     */
+    static BackupService.DirectoryUsage write(Path dataDir, Path target, int parallelism) throws IOException {
+        List<SegmentTask> tasks = new ArrayList<>();
+        int files = 0;
+        long bytes = 0;
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")) continue; // half-written saves
+                String name = dataDir.relativize(file).toString().replace('\\', '/');
+                long size = Files.size(file);
+                FileTime modified = Files.getLastModifiedTime(file);
+                // An empty file still gets one (empty) segment so that restore recreates it
+                long offset = 0;
+                int segment = 0;
+                do {
+                    long length = Math.min(SEGMENT_SIZE, size - offset);
+                    tasks.add(new SegmentTask(file, name + "." + segment++ + ".gz", modified, offset, length));
+                    offset += length;
+                } while (offset < size);
+                files++;
+                bytes += size;
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            writeSegments(tasks, temp, executor, parallelism);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // Leave no half-written archive behind
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        return new BackupService.DirectoryUsage(bytes, files);
+    }
+
+    // Compresses the segments on the executor and writes them, in order, into a zip at temp
+    private static void writeSegments(List<SegmentTask> tasks, Path temp, ExecutorService executor, int parallelism)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING);
+             ZipOutputStream zip = new ZipOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE))) {
+            zip.setMethod(ZipOutputStream.STORED);
+
+            // Keep a window of segments compressing ahead of the writer, which consumes them in order
+            Deque<CompletableFuture<Segment>> window = new ArrayDeque<>();
+            int next = 0;
+            while (next < tasks.size() || !window.isEmpty()) {
+                while (next < tasks.size() && window.size() < 2 * parallelism) {
+                    SegmentTask task = tasks.get(next++);
+                    window.add(CompletableFuture.supplyAsync(() -> compress(task), executor));
+                }
+                Segment segment = window.poll().join();
+                ZipEntry entry = new ZipEntry(segment.entryName());
+                entry.setLastModifiedTime(segment.modified());
+                entry.setSize(segment.gzip().length);
+                entry.setCompressedSize(segment.gzip().length);
+                entry.setCrc(segment.crc());
+                zip.putNextEntry(entry);
+                zip.write(segment.gzip());
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            channel.force(true);
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof IOException io) ? io : new IOException(e.getCause());
+        }
+    }
+
+    // Runs on a worker: reads one range with positional reads and gzips it in memory
+    private static Segment compress(SegmentTask task) {
+        try (FileChannel in = FileChannel.open(task.file(), StandardOpenOption.READ)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.max(32, task.length() / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, IO_BUFFER_SIZE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+                long position = task.offset();
+                long end = task.offset() + task.length();
+                while (position < end) {
+                    buffer.clear().limit((int) Math.min(IO_BUFFER_SIZE, end - position));
+                    int read = in.read(buffer, position);
+                    if (read < 0) break; // the file shrank while we were reading it
+                    gzip.write(buffer.array(), 0, read);
+                    position += read;
+                }
+            }
+            byte[] gzip = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(gzip);
+            return new Segment(task.entryName(), task.modified(), gzip, crc.getValue());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Rebuilds the archived files under dataDir. Each file's segments are
+     * decompressed straight into a temp file, which is then moved into place
+     * with its original modification time.
+     * @return The paths that were restored
+     */
+    static Set<Path> extract(Path archive, Path dataDir) throws IOException {
+        Set<Path> restored = new HashSet<>();
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+             ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE))) {
+            Path current = null;
+            Path temp = null;
+            FileTime modified = null;
+            OutputStream out = null;
+            FileChannel outChannel = null;
+            try {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    Path target = dataDir.resolve(fileName(entry.getName())).normalize();
+                    if (!target.startsWith(dataDir.normalize())) {
+                        throw new IOException("Archive entry escapes the data directory: " + entry.getName());
+                    }
+                    if (!target.equals(current)) {
+                        if (current != null) {
+                            finish(out, outChannel, temp, current, modified);
+                        }
+                        current = target;
+                        Files.createDirectories(target.getParent());
+                        temp = target.resolveSibling(target.getFileName() + ".tmp");
+                        outChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+                        out = new BufferedOutputStream(Channels.newOutputStream(outChannel), IO_BUFFER_SIZE);
+                        modified = entry.getLastModifiedTime();
+                        restored.add(target);
+                    }
+                    // Not closed: closing would close the zip stream as well
+                    InputStream gzip = new GZIPInputStream(zip, IO_BUFFER_SIZE);
+                    gzip.transferTo(out);
+                }
+                if (current != null) {
+                    finish(out, outChannel, temp, current, modified);
+                    outChannel = null;
+                }
+            } finally {
+                if (outChannel != null && outChannel.isOpen()) {
+                    outChannel.close();
+                }
+            }
+        }
+        return restored;
+    }
+
+    private static void finish(OutputStream out, FileChannel channel, Path temp, Path target, FileTime modified)
+            throws IOException {
+        out.flush();
+        channel.force(true);
+        channel.close();
+        if (modified != null) {
+            Files.setLastModifiedTime(temp, modified);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // "enrollments.csv.3.gz" -> "enrollments.csv"
+    private static String fileName(String entryName) throws IOException {
+        if (entryName.endsWith(".gz")) {
+            String withoutSuffix = entryName.substring(0, entryName.length() - 3);
+            int dot = withoutSuffix.lastIndexOf('.');
+            if (dot > 0) {
+                return withoutSuffix.substring(0, dot);
+            }
+        }
+        throw new IOException("Not a backup archive entry: " + entryName);
+    }
+}
@@ -1,81 +1,674 @@
 package edu.ccrm.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 /**
  * Handles creating backups and performing recursive file operations.
+ *
+ * Backups are incremental and content-addressed. Every file in data/ is split
+ * into fixed-size chunks, and each chunk is stored once under
+ * backups/objects/, named by its SHA-256. A backup is then just a manifest in
+ * backups/manifests/ listing each file's size, modification time and chunk
+ * hashes. A file whose size and modification time match the previous manifest
+ * is not even read again, so a backup costs time and disk in proportion to
+ * what changed since the last one.
+ *
+ * Archive backups instead write the whole data directory into one compressed
+ * zip per backup under backups/archives/ (see {@link BackupArchive}).
+ *
+ * Older versions copied data/ into a timestamped folder directly under
+ * backups/. Those folders are still listed and can be restored; they have no
+ * hashes, so verifying one only checks that its files can be read.
  */
 public class BackupService {
 
-    private static final Path DATA_DIR = Paths.get("data");
+    private static final Path DATA_DIR = ImportExportService.DATA_DIRECTORY;
     private static final Path BACKUP_DIR = Paths.get("backups");
-    
+    private static final Path OBJECTS_DIR = BACKUP_DIR.resolve("objects");
+    private static final Path MANIFESTS_DIR = BACKUP_DIR.resolve("manifests");
+    private static final String MANIFEST_SUFFIX = ".csv";
+    private static final Path ARCHIVES_DIR = BACKUP_DIR.resolve("archives");
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final Path CATALOG_FILE = BACKUP_DIR.resolve("catalog.csv");
+    // Folder backups written before manifests existed, e.g. backups/2025-09-12_16-10-20/
+    private static final String LEGACY_FOLDER_PATTERN = "\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2}-\\d{2}";
+
+    // Totals of backups/catalog.csv, loaded on first use; guarded by this
+    private DirectoryUsage catalogTotals;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * One data file as recorded in a manifest.
+     * @param path Path relative to data/, with '/' separators
+     */
+    record FileEntry(String path, long size, long modifiedMillis, List<String> chunks) {}
+
     /**
-     * Creates a timestamped backup of the entire data directory.
+     * Creates a backup of the data directory, storing only chunks not already in the object store.
      */
     public void performBackup() {
         if (!Files.exists(DATA_DIR)) {
             System.out.println("Data directory does not exist. Nothing to back up.");
             return;
         }
-        
-        // 1. Create a timestamped folder name (e.g., "2025-09-12_16-10-20")
+
+        // 1. Name the manifest after the time (e.g., "2025-09-12_16-10-20.csv")
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        Path targetDir = BACKUP_DIR.resolve(timestamp);
+        Path manifest = MANIFESTS_DIR.resolve(timestamp + MANIFEST_SUFFIX);
 
         try {
-            Files.createDirectories(targetDir);
-            
-            // 2. Walk the file tree of the source directory and copy files.
-            try (var paths = Files.walk(DATA_DIR)) {
-                paths.forEach(sourcePath -> {
-                    try {
-                        Path destinationPath = targetDir.resolve(DATA_DIR.relativize(sourcePath));
-                        Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-                    } catch (IOException e) {
-                        System.err.println("Could not copy file: " + sourcePath);
+            ensureCatalog();
+            Files.createDirectories(OBJECTS_DIR);
+            Files.createDirectories(MANIFESTS_DIR);
+
+            // 2. Files unchanged since the last backup reuse its chunk list without being read
+            Map<String, FileEntry> previous = new HashMap<>();
+            List<String> existing = listManifests();
+            if (!existing.isEmpty()) {
+                for (FileEntry entry : readManifest(existing.get(existing.size() - 1))) {
+                    previous.put(entry.path(), entry);
+                }
+            }
+
+            // 3. Hash and store each file's chunks
+            List<FileEntry> entries = new ArrayList<>();
+            long[] stored = new long[2]; // new chunks, new bytes
+            try (Stream<Path> paths = Files.walk(DATA_DIR)) {
+                for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                    if (file.getFileName().toString().endsWith(".tmp")) continue; // half-written saves
+                    String relative = DATA_DIR.relativize(file).toString().replace('\\', '/');
+                    long size = Files.size(file);
+                    long modified = Files.getLastModifiedTime(file).toMillis();
+                    FileEntry old = previous.get(relative);
+                    if (old != null && old.size() == size && old.modifiedMillis() == modified && chunksExist(old)) {
+                        entries.add(old);
+                    } else {
+                        entries.add(new FileEntry(relative, size, modified, storeChunks(file, stored)));
+                    }
+                }
+            }
+
+            // 4. Write the manifest last, so a backup only exists once all its chunks do
+            ImportExportService.writeAtomically(manifest, csv -> {
+                for (FileEntry entry : entries) {
+                    csv.field(entry.path()).field(Long.toString(entry.size())).field(Long.toString(entry.modifiedMillis()));
+                    for (String chunk : entry.chunks()) {
+                        csv.field(chunk);
                     }
-                });
+                    csv.endRecord();
+                }
+            });
+            long dataBytes = 0;
+            for (FileEntry entry : entries) {
+                dataBytes += entry.size();
             }
-            System.out.println("Backup successful. Created at: " + targetDir.toAbsolutePath());
+            recordInCatalog(new CatalogEntry(timestamp, CatalogEntry.INCREMENTAL, entries.size(), dataBytes,
+                    stored[0] + 1, stored[1] + Files.size(manifest)));
+            System.out.printf("Backup successful: %d file(s), %d new chunk(s), %.2f KB stored. Manifest: %s%n",
+                    entries.size(), stored[0], stored[1] / 1024.0, manifest.toAbsolutePath());
         } catch (IOException e) {
             System.err.println("Backup failed: " + e.getMessage());
         }
     }
-    
+
     /**
-     * Recursively calculates the total size of a directory.
-     * The Files.walk() method handles the directory traversal, making the
-     * recursive logic clean and functional.
-     *
-     * @param path The directory to calculate the size of.
-     * @return The total size in bytes.
+     * @return Names of the incremental backups and of legacy folder backups, oldest first
      */
-    public long calculateDirectorySize(Path path) {
-        if (!Files.exists(path) || !Files.isDirectory(path)) {
-            return 0;
-        }
-        
-        AtomicLong size = new AtomicLong(0);
-
-        try (Stream<Path> walk = Files.walk(path)) {
-            walk.filter(Files::isRegularFile)
-                .forEach(p -> {
-                    try {
-                        size.addAndGet(Files.size(p));
-                    } catch (IOException e) {
-                        System.err.println("Cannot read size of file: " + p);
+    public List<String> listBackups() {
+        List<String> backups = new ArrayList<>(listManifests());
+        backups.addAll(listLegacyFolders());
+        backups.sort(null); // timestamps sort chronologically
+        return backups;
+    }
+
+    private List<String> listManifests() {
+        if (!Files.isDirectory(MANIFESTS_DIR)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(MANIFESTS_DIR)) {
+            return files.map(p -> p.getFileName().toString())
+                        .filter(name -> name.endsWith(MANIFEST_SUFFIX))
+                        .map(name -> name.substring(0, name.length() - MANIFEST_SUFFIX.length()))
+                        .sorted() // timestamps sort chronologically
+                        .toList();
+        } catch (IOException e) {
+            System.err.println("Cannot list backups: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<String> listLegacyFolders() {
+        if (!Files.isDirectory(BACKUP_DIR)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(BACKUP_DIR)) {
+            return dirs.filter(Files::isDirectory)
+                       .map(p -> p.getFileName().toString())
+                       .filter(name -> name.matches(LEGACY_FOLDER_PATTERN))
+                       .filter(name -> !Files.exists(MANIFESTS_DIR.resolve(name + MANIFEST_SUFFIX)))
+                       .toList();
+        } catch (IOException e) {
+            System.err.println("Cannot list folder backups: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    // A name only resolves to a legacy folder when there is no manifest of that name
+    private static Path legacyFolder(String name) {
+        if (!name.matches(LEGACY_FOLDER_PATTERN) || Files.exists(MANIFESTS_DIR.resolve(name + MANIFEST_SUFFIX))) {
+            return null;
+        }
+        Path folder = BACKUP_DIR.resolve(name);
+        return Files.isDirectory(folder) ? folder : null;
+    }
+
+    /**
+     * Rebuilds every file of a backup into the data directory and removes files
+     * the backup did not have. Each chunk is checked against its hash before it
+     * is written, and each file is swapped into place atomically with its
+     * original modification time.
+     * @return true if every file was restored
+     */
+    public boolean restoreBackup(String name) {
+        Path legacy = legacyFolder(name);
+        if (legacy != null) {
+            return restoreLegacyFolder(name, legacy);
+        }
+        try {
+            List<FileEntry> entries = readManifest(name);
+            MessageDigest digest = sha256();
+            for (FileEntry entry : entries) {
+                Path target = DATA_DIR.resolve(entry.path());
+                Files.createDirectories(target.getParent());
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (String chunk : entry.chunks()) {
+                        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(objectPath(chunk)));
+                        if (!hash(digest, bytes.duplicate()).equals(chunk)) {
+                            throw new IOException("Chunk " + chunk + " of " + entry.path() + " is corrupt");
+                        }
+                        while (bytes.hasRemaining()) {
+                            out.write(bytes);
+                        }
+                    }
+                    out.force(true);
+                }
+                Files.setLastModifiedTime(temp, FileTime.fromMillis(entry.modifiedMillis()));
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Set<Path> restored = new HashSet<>();
+            for (FileEntry entry : entries) {
+                restored.add(DATA_DIR.resolve(entry.path()).normalize());
+            }
+            removeFilesNotIn(restored);
+            System.out.println("Restored " + entries.size() + " file(s) from backup " + name + ".");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Restore failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Copies a legacy folder backup over data/, one file at a time through a temp file
+    private boolean restoreLegacyFolder(String name, Path folder) {
+        try {
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(folder)) {
+                files = paths.filter(Files::isRegularFile).toList();
+            }
+            Set<Path> restored = new HashSet<>();
+            for (Path file : files) {
+                Path target = DATA_DIR.resolve(folder.relativize(file).toString());
+                Files.createDirectories(target.getParent());
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                restored.add(target.normalize());
+            }
+            removeFilesNotIn(restored);
+            System.out.println("Restored " + restored.size() + " file(s) from folder backup " + name + ".");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Restore failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks that every chunk a backup refers to exists and still matches its hash.
+     * A legacy folder backup has no hashes, so only its files' readability is checked.
+     * @return true if the backup can be restored in full
+     */
+    public boolean verifyBackup(String name) {
+        Path legacy = legacyFolder(name);
+        if (legacy != null) {
+            return verifyLegacyFolder(name, legacy);
+        }
+        try {
+            List<FileEntry> entries = readManifest(name);
+            MessageDigest digest = sha256();
+            int chunks = 0;
+            int bad = 0;
+            for (FileEntry entry : entries) {
+                long size = 0;
+                for (String chunk : entry.chunks()) {
+                    chunks++;
+                    Path object = objectPath(chunk);
+                    if (!Files.exists(object)) {
+                        System.err.println("Missing chunk " + chunk + " of " + entry.path());
+                        bad++;
+                        continue;
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(object));
+                    size += bytes.remaining();
+                    if (!hash(digest, bytes).equals(chunk)) {
+                        System.err.println("Corrupt chunk " + chunk + " of " + entry.path());
+                        bad++;
+                    }
+                }
+                if (size != entry.size() && bad == 0) {
+                    System.err.println("Size mismatch for " + entry.path() + ": expected " + entry.size() + ", found " + size);
+                    bad++;
+                }
+            }
+            System.out.println("Verified backup " + name + ": " + entries.size() + " file(s), " + chunks + " chunk(s), "
+                    + bad + " problem(s).");
+            return bad == 0;
+        } catch (IOException e) {
+            System.err.println("Verify failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean verifyLegacyFolder(String name, Path folder) {
+        int files = 0;
+        int bad = 0;
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                files++;
+                if (!Files.isReadable(file)) {
+                    System.err.println("Unreadable file " + folder.relativize(file));
+                    bad++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Verify failed: " + e.getMessage());
+            return false;
+        }
+        System.out.println("Verified folder backup " + name + ": " + files + " file(s), " + bad
+                + " problem(s). It predates checksums, so contents were not checked.");
+        return bad == 0;
+    }
+
+    /**
+     * Writes the whole data directory into one compressed archive under
+     * backups/archives/, compressing on every core.
+     */
+    public void performArchiveBackup() {
+        if (!Files.exists(DATA_DIR)) {
+            System.out.println("Data directory does not exist. Nothing to back up.");
+            return;
+        }
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path archive = ARCHIVES_DIR.resolve(timestamp + ARCHIVE_SUFFIX);
+        try {
+            ensureCatalog();
+            Files.createDirectories(ARCHIVES_DIR);
+            long start = System.nanoTime();
+            DirectoryUsage data = BackupArchive.write(DATA_DIR, archive, Runtime.getRuntime().availableProcessors());
+            long archiveBytes = Files.size(archive);
+            recordInCatalog(new CatalogEntry(timestamp, CatalogEntry.ARCHIVE, data.files(), data.bytes(), 1, archiveBytes));
+            System.out.printf("Archive created: %d file(s), %.2f KB in %d ms. Archive: %s%n", data.files(),
+                    archiveBytes / 1024.0, (System.nanoTime() - start) / 1_000_000, archive.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Archive backup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Names of the compressed archives, oldest first
+     */
+    public List<String> listArchives() {
+        if (!Files.isDirectory(ARCHIVES_DIR)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(ARCHIVES_DIR)) {
+            return files.map(p -> p.getFileName().toString())
+                        .filter(name -> name.endsWith(ARCHIVE_SUFFIX))
+                        .map(name -> name.substring(0, name.length() - ARCHIVE_SUFFIX.length()))
+                        .sorted()
+                        .toList();
+        } catch (IOException e) {
+            System.err.println("Cannot list archives: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Extracts an archive into the data directory and removes files it did not contain.
+     * @return true if the archive was extracted in full
+     */
+    public boolean restoreArchive(String name) {
+        try {
+            Set<Path> restored = BackupArchive.extract(ARCHIVES_DIR.resolve(name + ARCHIVE_SUFFIX), DATA_DIR);
+            removeFilesNotIn(restored);
+            System.out.println("Restored " + restored.size() + " file(s) from archive " + name + ".");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Restore failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Anything the backup did not have, e.g. a newer snapshot.bin, would otherwise shadow it
+    private static void removeFilesNotIn(Set<Path> keep) throws IOException {
+        List<Path> extra;
+        try (Stream<Path> paths = Files.walk(DATA_DIR)) {
+            extra = paths.filter(Files::isRegularFile)
+                         .filter(p -> !keep.contains(p.normalize()))
+                         .toList();
+        }
+        for (Path p : extra) {
+            Files.delete(p);
+        }
+    }
+
+    private List<FileEntry> readManifest(String name) throws IOException {
+        Path manifest = MANIFESTS_DIR.resolve(name + MANIFEST_SUFFIX);
+        if (!Files.exists(manifest)) {
+            throw new NoSuchFileException("No backup named " + name);
+        }
+        List<FileEntry> entries = new ArrayList<>();
+        try (CsvReader csv = CsvReader.open(manifest)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 3) continue;
+                List<String> chunks = new ArrayList<>(csv.getFieldCount() - 3);
+                for (int i = 3; i < csv.getFieldCount(); i++) {
+                    chunks.add(csv.getString(i));
+                }
+                entries.add(new FileEntry(csv.getString(0), Long.parseLong(csv.getString(1)),
+                        Long.parseLong(csv.getString(2)), chunks));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed manifest " + manifest + ": " + e.getMessage());
+        }
+        return entries;
+    }
+
+    /**
+     * Splits the file into chunks and writes each one not already in the object store.
+     * @param stored Running totals of new chunks [0] and new bytes [1]
+     * @return The file's chunk hashes, in order
+     */
+    private List<String> storeChunks(Path file, long[] stored) throws IOException {
+        List<String> chunks = new ArrayList<>();
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (true) {
+                buffer.clear();
+                // Fill the whole chunk unless the file ends first
+                while (buffer.hasRemaining() && in.read(buffer) > 0);
+                buffer.flip();
+                if (!buffer.hasRemaining()) break;
+
+                String chunk = hash(digest, buffer.duplicate());
+                chunks.add(chunk);
+                Path object = objectPath(chunk);
+                if (!Files.exists(object)) {
+                    Files.createDirectories(object.getParent());
+                    Path temp = object.resolveSibling(chunk + ".tmp");
+                    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                        while (buffer.hasRemaining()) {
+                            out.write(buffer);
+                        }
+                        out.force(true);
+                    }
+                    Files.move(temp, object, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    stored[0]++;
+                    stored[1] += buffer.limit();
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private static boolean chunksExist(FileEntry entry) {
+        for (String chunk : entry.chunks()) {
+            if (!Files.exists(objectPath(chunk))) return false;
+        }
+        return true;
+    }
+
+    // Objects fan out over 256 subdirectories by the first two hex digits
+    private static Path objectPath(String hash) {
+        return OBJECTS_DIR.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String hash(MessageDigest digest, ByteBuffer bytes) {
+        digest.reset();
+        digest.update(bytes);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+    }
+
+    // --- Catalog ---
+
+    /**
+     * One row of backups/catalog.csv.
+     * @param dataFiles Files in data/ that the backup covers
+     * @param dataBytes Their total size
+     * @param storedFiles Files this backup added under backups/
+     * @param storedBytes Bytes this backup added under backups/
+     */
+    record CatalogEntry(String name, String kind, long dataFiles, long dataBytes, long storedFiles, long storedBytes) {
+        static final String INCREMENTAL = "INCREMENTAL";
+        static final String ARCHIVE = "ARCHIVE";
+        // Correction written by a reconcile scan, covering anything the catalog missed
+        static final String ADJUSTMENT = "ADJUSTMENT";
+    }
+
+    /**
+     * Bytes and files, either on disk or covered by a backup.
+     */
+    public record DirectoryUsage(long bytes, long files) {}
+
+    /**
+     * Returns the size of the backups directory from the catalog, without
+     * touching the backups themselves. The first call with no catalog yet runs
+     * a full scan to create one.
+     */
+    public synchronized DirectoryUsage getBackupUsage() {
+        if (catalogTotals == null) {
+            if (Files.exists(CATALOG_FILE)) {
+                catalogTotals = readCatalogTotals();
+            } else {
+                return reconcileCatalog();
+            }
+        }
+        return catalogTotals;
+    }
+
+    /**
+     * Scans the backups directory in parallel and, if the catalog disagrees with
+     * what is on disk, records the difference as an adjustment row.
+     * @return The usage found on disk
+     */
+    public synchronized DirectoryUsage reconcileCatalog() {
+        DirectoryUsage actual = scanDirectory(BACKUP_DIR);
+        DirectoryUsage cataloged = new DirectoryUsage(0, 0);
+        if (Files.exists(CATALOG_FILE)) {
+            cataloged = readCatalogTotals();
+            try {
+                // The catalog does not count itself
+                actual = new DirectoryUsage(actual.bytes() - Files.size(CATALOG_FILE), actual.files() - 1);
+            } catch (IOException e) {
+                System.err.println("Cannot read size of file: " + CATALOG_FILE);
+            }
+        }
+        if (actual.bytes() != cataloged.bytes() || actual.files() != cataloged.files()) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+            recordInCatalog(new CatalogEntry(timestamp, CatalogEntry.ADJUSTMENT, 0, 0,
+                    actual.files() - cataloged.files(), actual.bytes() - cataloged.bytes()));
+        }
+        catalogTotals = actual;
+        return actual;
+    }
+
+    // Backups made before the catalog existed are picked up by a baseline scan
+    private void ensureCatalog() {
+        if (!Files.exists(CATALOG_FILE)) {
+            reconcileCatalog();
+        }
+    }
+
+    private synchronized void recordInCatalog(CatalogEntry entry) {
+        try {
+            Files.createDirectories(BACKUP_DIR);
+            try (FileChannel channel = FileChannel.open(CATALOG_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+                 CsvWriter csv = CsvWriter.create(channel)) {
+                csv.field(entry.name()).field(entry.kind())
+                   .field(Long.toString(entry.dataFiles())).field(Long.toString(entry.dataBytes()))
+                   .field(Long.toString(entry.storedFiles())).field(Long.toString(entry.storedBytes()));
+                csv.endRecord();
+            }
+            if (catalogTotals != null) {
+                catalogTotals = new DirectoryUsage(catalogTotals.bytes() + entry.storedBytes(),
+                        catalogTotals.files() + entry.storedFiles());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not update backup catalog: " + e.getMessage());
+        }
+    }
+
+    private DirectoryUsage readCatalogTotals() {
+        long bytes = 0;
+        long files = 0;
+        try (CsvReader csv = CsvReader.open(CATALOG_FILE)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 6) continue;
+                try {
+                    files += Long.parseLong(csv.getString(4));
+                    bytes += Long.parseLong(csv.getString(5));
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping catalog line " + csv.getLineNumber() + ": " + csv.recordText());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read backup catalog: " + e.getMessage());
+        }
+        return new DirectoryUsage(bytes, files);
+    }
+
+    /**
+     * Sums the sizes of all regular files under a directory, walking
+     * subdirectories in parallel. Sizes come from the attributes the walk
+     * already read, so each file costs one stat call.
+     */
+    public DirectoryUsage scanDirectory(Path root) {
+        if (!Files.isDirectory(root)) {
+            return new DirectoryUsage(0, 0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            // Walk the top two levels here and hand each directory found at depth two to the pool;
+            // objects/ alone fans out into 256 of them.
+            List<CompletableFuture<DirectoryUsage>> subtrees = new ArrayList<>();
+            SizeVisitor top = new SizeVisitor() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isDirectory()) { // depth limit reached
+                        subtrees.add(CompletableFuture.supplyAsync(() -> walk(file), executor));
+                        return FileVisitResult.CONTINUE;
                     }
-                });
+                    return super.visitFile(file, attrs);
+                }
+            };
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), 2, top);
+            long bytes = top.bytes;
+            long files = top.files;
+            for (CompletableFuture<DirectoryUsage> subtree : subtrees) {
+                DirectoryUsage usage = subtree.join();
+                bytes += usage.bytes();
+                files += usage.files();
+            }
+            return new DirectoryUsage(bytes, files);
         } catch (IOException e) {
-            System.err.println("Error walking directory: " + path);
+            System.err.println("Error walking directory: " + root);
+            return new DirectoryUsage(0, 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static DirectoryUsage walk(Path dir) {
+        SizeVisitor visitor = new SizeVisitor();
+        try {
+            Files.walkFileTree(dir, visitor);
+        } catch (IOException e) {
+            System.err.println("Error walking directory: " + dir);
+        }
+        return new DirectoryUsage(visitor.bytes, visitor.files);
+    }
+
+    private static class SizeVisitor extends SimpleFileVisitor<Path> {
+        long bytes;
+        long files;
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (attrs.isRegularFile()) {
+                bytes += attrs.size();
+                files++;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            System.err.println("Cannot read size of file: " + file);
+            return FileVisitResult.CONTINUE;
         }
+    }
 
-        return size.get();
+    /**
+     * Calculates the total size of a directory with the parallel scanner.
+     *
+     * @param path The directory to calculate the size of.
+     * @return The total size in bytes.
+     */
+    public long calculateDirectorySize(Path path) {
+        return scanDirectory(path).bytes();
     }
-}
\ No newline at end of file
+}
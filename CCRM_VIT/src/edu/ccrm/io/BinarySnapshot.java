@@ -0,0 +1,435 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.*;
+import edu.ccrm.service.SavedEnrollment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the whole store, read through a memory-mapped file.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   int    magic 'CCRB', int version
+ *   int    string count, then each string           -- shared department / code / employee ID table
+ *   int    instructor count, then each instructor    -- id, name, email, birth epoch-day, empId ref, dept ref
+ *   int    course count, then each course            -- code ref, title, credits, dept ref, semester ordinal, instructor index, capacity
+ *   int    student count, then int[count] offsets    -- absolute offset of each student record, sorted by regNo
+ *          student records                           -- regNo, name, email, birth epoch-day, active, first enrollment, enrollment count
+ *   int    enrollment count, then (int student index, int course index, byte grade ordinal) triples, grouped by student
+ * </pre>
+ * Version 1 files, which have no course capacity, are still read.
+ * Strings are a u16 byte length followed by UTF-8; length 0xFFFF means null.
+ * A "ref" is an index into the string table and an index or ordinal of -1 means
+ * absent. Enrollment triples are a fixed {@value #ENROLLMENT_BYTES} bytes, and the
+ * offset table is sorted, so a single student can be found and read without
+ * decoding the rest of the file. Offsets are ints and the file is mapped as one
+ * region, so a snapshot is limited to {@link #MAX_FILE_SIZE} bytes; a store too
+ * large for that is refused with an IOException rather than written truncated.
+ */
+public final class BinarySnapshot {
+    public static final Path SNAPSHOT_FILE = ImportExportService.DATA_DIRECTORY.resolve("snapshot.bin");
+
+    static final int MAGIC = 0x43435242; // "CCRB"
+    static final int VERSION = 2;
+    static final int ENROLLMENT_BYTES = 9;
+    static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Everything read back from a snapshot, in file order.
+     */
+    record Contents(List<Instructor> instructors, List<Course> courses, List<Student> students,
+                    List<SavedEnrollment> enrollments) {}
+
+    // --- Writing ---
+
+    /**
+     * Writes a snapshot to a temp file, forces it to disk and renames it over the target.
+     */
+    static void write(Path target, Collection<Student> students, Collection<Instructor> instructors,
+                      Collection<Course> courses) throws IOException {
+        List<Instructor> instructorList = new ArrayList<>(instructors);
+        List<Course> courseList = new ArrayList<>(courses);
+        List<Student> studentList = new ArrayList<>(students);
+        studentList.sort(Comparator.comparing(Student::getRegNo));
+
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+        Map<Instructor, Integer> instructorIndex = new HashMap<>();
+        Map<String, Integer> courseIndex = new HashMap<>();
+        for (int i = 0; i < instructorList.size(); i++) {
+            Instructor in = instructorList.get(i);
+            instructorIndex.put(in, i);
+            intern(in.getEmployeeId(), strings, stringTable);
+            intern(in.getDepartment(), strings, stringTable);
+        }
+        for (int i = 0; i < courseList.size(); i++) {
+            Course c = courseList.get(i);
+            courseIndex.put(c.getCode(), i);
+            intern(c.getCode(), strings, stringTable);
+            intern(c.getDepartment(), strings, stringTable);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            writeTo(temp, stringTable, instructorList, courseList, studentList, strings, instructorIndex, courseIndex);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeTo(Path temp, List<String> stringTable, List<Instructor> instructorList,
+                                List<Course> courseList, List<Student> studentList, Map<String, Integer> strings,
+                                Map<Instructor, Integer> instructorIndex, Map<String, Integer> courseIndex)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+
+            out.putInt(stringTable.size());
+            for (String s : stringTable) {
+                out.putString(s);
+            }
+
+            out.putInt(instructorList.size());
+            for (Instructor in : instructorList) {
+                out.putString(in.getId());
+                out.putString(in.getFullName());
+                out.putString(in.getEmail());
+                out.putLong(in.getDateOfBirth().toEpochDay());
+                out.putInt(ref(in.getEmployeeId(), strings));
+                out.putInt(ref(in.getDepartment(), strings));
+            }
+
+            out.putInt(courseList.size());
+            for (Course c : courseList) {
+                out.putInt(ref(c.getCode(), strings));
+                out.putString(c.getTitle());
+                out.putInt(c.getCredits());
+                out.putInt(ref(c.getDepartment(), strings));
+                out.put((byte) (c.getSemester() == null ? -1 : c.getSemester().ordinal()));
+                out.putInt(c.getInstructor() == null ? -1 : instructorIndex.getOrDefault(c.getInstructor(), -1));
+                out.putInt(c.getCapacity());
+            }
+
+            // Reserve the offset table and fill it in once the records have been written
+            out.putInt(studentList.size());
+            long offsetTable = out.position();
+            out.skip(4L * studentList.size());
+            int[] offsets = new int[studentList.size()];
+            // Copied once under each student's lock, so the counts written here match the rows written below
+            List<List<Enrollment>> enrollments = new ArrayList<>(studentList.size());
+            int firstEnrollment = 0;
+            for (int i = 0; i < studentList.size(); i++) {
+                Student s = studentList.get(i);
+                List<Enrollment> enrolled = DataStore.getInstance().snapshotEnrollments(s);
+                enrollments.add(enrolled);
+                offsets[i] = out.offset();
+                out.putString(s.getRegNo());
+                out.putString(s.getFullName());
+                out.putString(s.getEmail());
+                out.putLong(s.getDateOfBirth().toEpochDay());
+                out.put((byte) (s.isActive() ? 1 : 0));
+                out.putInt(firstEnrollment);
+                out.putInt(enrolled.size());
+                firstEnrollment += enrolled.size();
+            }
+
+            out.putInt(firstEnrollment);
+            for (int i = 0; i < studentList.size(); i++) {
+                for (Enrollment e : enrollments.get(i)) {
+                    out.putInt(i);
+                    out.putInt(courseIndex.get(e.getCourse().getCode()));
+                    out.put((byte) (e.getGrade() == null ? -1 : e.getGrade().ordinal()));
+                }
+            }
+            out.flush();
+
+            ByteBuffer table = ByteBuffer.allocate(4 * offsets.length);
+            table.asIntBuffer().put(offsets);
+            long position = offsetTable;
+            while (table.hasRemaining()) {
+                position += channel.write(table, position);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void intern(String s, Map<String, Integer> strings, List<String> table) {
+        if (s != null && !strings.containsKey(s)) {
+            strings.put(s, table.size());
+            table.add(s);
+        }
+    }
+
+    private static int ref(String s, Map<String, Integer> strings) {
+        return s == null ? -1 : strings.get(s);
+    }
+
+    /**
+     * Streams primitives to a channel through one reusable direct buffer.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private long flushed;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        // The current position as a stored offset
+        int offset() throws IOException {
+            checkSize(position());
+            return (int) position();
+        }
+
+        void put(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buffer.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            buffer.putLong(v);
+        }
+
+        void putString(String s) throws IOException {
+            if (s == null) {
+                ensure(2);
+                buffer.putShort((short) NULL_STRING);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length >= NULL_STRING) {
+                throw new IOException("String too long for snapshot: " + s.substring(0, 32) + "...");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        // Writes zeros; used to reserve space that is patched later
+        void skip(long count) throws IOException {
+            for (long i = 0; i < count; i++) {
+                put((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            checkSize(position());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static void checkSize(long bytes) throws IOException {
+        if (bytes > MAX_FILE_SIZE) {
+            throw new IOException("The store is too large for a binary snapshot (over "
+                    + MAX_FILE_SIZE / (1024 * 1024) + " MB); use the CSV export instead");
+        }
+    }
+
+    /**
+     * Maps the whole file as one read-only region.
+     */
+    static MappedByteBuffer map(FileChannel channel, Path file) throws IOException {
+        long size = channel.size();
+        if (size > MAX_FILE_SIZE) {
+            throw new IOException("Snapshot " + file + " is " + size + " bytes, over the "
+                    + MAX_FILE_SIZE + " byte limit of the format");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    // --- Reading ---
+
+    /**
+     * Maps the file and decodes every record. Course and instructor links are
+     * resolved by index; enrollments come back as rows for the caller to apply
+     * through the services.
+     */
+    static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = map(channel, file);
+            Input in = new Input(buf);
+            Catalog catalog = readCatalog(buf, in);
+
+            int studentCount = buf.getInt();
+            buf.position(buf.position() + 4 * studentCount); // offsets are only needed for random access
+            List<Student> students = new ArrayList<>(studentCount);
+            for (int i = 0; i < studentCount; i++) {
+                students.add(readStudent(buf, in));
+            }
+
+            int enrollmentCount = buf.getInt();
+            List<SavedEnrollment> enrollments = new ArrayList<>(enrollmentCount);
+            for (int i = 0; i < enrollmentCount; i++) {
+                Student student = students.get(buf.getInt());
+                Course course = catalog.courses().get(buf.getInt());
+                enrollments.add(new SavedEnrollment(student, course, grade(buf.get())));
+            }
+            return new Contents(catalog.instructors(), catalog.courses(), students, enrollments);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot " + file + ": " + e, e);
+        }
+    }
+
+    /**
+     * The instructors and courses, which precede the student section.
+     */
+    record Catalog(List<Instructor> instructors, List<Course> courses) {}
+
+    /**
+     * Checks the header and reads everything up to the student count, leaving
+     * the buffer positioned on it.
+     */
+    static Catalog readCatalog(ByteBuffer buf, Input in) throws IOException {
+        int version = checkHeader(buf);
+
+        String[] strings = new String[buf.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.getString();
+        }
+
+        int instructorCount = buf.getInt();
+        List<Instructor> instructors = new ArrayList<>(instructorCount);
+        for (int i = 0; i < instructorCount; i++) {
+            String id = in.getString();
+            String name = in.getString();
+            String email = in.getString();
+            LocalDate dob = LocalDate.ofEpochDay(buf.getLong());
+            String empId = lookup(strings, buf.getInt());
+            String dept = lookup(strings, buf.getInt());
+            instructors.add(new Instructor(id, name, email, dob, empId, dept));
+        }
+
+        int courseCount = buf.getInt();
+        List<Course> courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            courses.add(readCourse(buf, in, strings, instructors, version));
+        }
+        return new Catalog(instructors, courses);
+    }
+
+    /**
+     * @return The file's format version
+     */
+    private static int checkHeader(ByteBuffer buf) throws IOException {
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a CCRM snapshot");
+        }
+        int version = buf.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        return version;
+    }
+
+    private static Course readCourse(ByteBuffer buf, Input in, String[] strings, List<Instructor> instructors,
+                                     int version) {
+        String code = lookup(strings, buf.getInt());
+        String title = in.getString();
+        int credits = buf.getInt();
+        String dept = lookup(strings, buf.getInt());
+        byte semester = buf.get();
+        int instructor = buf.getInt();
+        int capacity = (version >= 2) ? buf.getInt() : Course.UNLIMITED;
+        return new Course.Builder(code, title)
+                .credits(credits)
+                .department(dept)
+                .semester(semester < 0 ? null : Semester.values()[semester])
+                .instructor(instructor < 0 ? null : instructors.get(instructor))
+                .capacity(capacity)
+                .build();
+    }
+
+    /**
+     * Reads a student record at the buffer's position. The enrollment range
+     * that follows it is skipped; callers that need it read it from the triples.
+     */
+    static Student readStudent(ByteBuffer buf, Input in) {
+        String regNo = in.getString();
+        String name = in.getString();
+        String email = in.getString();
+        LocalDate dob = LocalDate.ofEpochDay(buf.getLong());
+        boolean active = buf.get() != 0;
+        buf.position(buf.position() + 8); // first enrollment, enrollment count
+        Student student = new Student(name, email, dob, regNo);
+        student.setActive(active);
+        return student;
+    }
+
+    static Grade grade(byte ordinal) {
+        return ordinal < 0 ? null : Grade.values()[ordinal];
+    }
+
+    private static String lookup(String[] strings, int ref) {
+        return ref < 0 ? null : strings[ref];
+    }
+
+    /**
+     * Decodes length-prefixed strings through one reusable byte array.
+     */
+    static final class Input {
+        private final ByteBuffer buf;
+        private byte[] scratch = new byte[256];
+
+        Input(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        String getString() {
+            int length = Short.toUnsignedInt(buf.getShort());
+            if (length == NULL_STRING) {
+                return null;
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buf.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
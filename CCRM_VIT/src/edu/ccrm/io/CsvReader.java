@@ -0,0 +1,328 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A streaming CSV reader that follows RFC 4180 quoting rules.
+ *
+ * Input is read in large blocks. Each record is unescaped into one reusable
+ * character buffer. Fields are handed out as CharSequence views over that
+ * buffer, so reading a row allocates nothing. A view is only valid until the
+ * next call to {@link #next()}. Call {@link #getString(int)} to keep a value.
+ *
+ * Blank lines are skipped. Both \n and \r\n line endings are accepted.
+ */
+public final class CsvReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // The current record: unescaped field text back to back, plus each field's end offset
+    private char[] record = new char[256];
+    private int[] fieldEnds = new int[16];
+    private Field[] views = new Field[0];
+    private int fieldCount;
+    private long lineNumber;
+    private long recordLine;
+
+    public CsvReader(Reader in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvReader(Reader in, int bufferSize) {
+        this.in = in;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Opens a UTF-8 file for streaming. The reader does its own buffering, so
+     * the stream is not wrapped in a BufferedReader.
+     */
+    public static CsvReader open(Path path) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     * @return false once the input is exhausted
+     * @throws IOException if reading fails or a quoted field is not closed
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            fieldCount = 0;
+            int length = 0;
+            if (!fill()) {
+                return false;
+            }
+            lineNumber++;
+            recordLine = lineNumber;
+            boolean sawContent = false;
+
+            fields:
+            while (true) {
+                // Start of a field
+                if (fill() && buffer[pos] == '"') {
+                    pos++;
+                    sawContent = true;
+                    while (true) {
+                        if (!fill()) {
+                            throw new IOException("Unterminated quoted field on line " + recordLine);
+                        }
+                        char c = buffer[pos++];
+                        if (c == '"') {
+                            if (fill() && buffer[pos] == '"') {
+                                pos++;
+                                length = append(length, '"');
+                            } else {
+                                break;
+                            }
+                        } else {
+                            if (c == '\n') {
+                                lineNumber++;
+                            }
+                            length = append(length, c);
+                        }
+                    }
+                }
+                // Unquoted text, or whatever follows a closing quote, up to the delimiter
+                while (true) {
+                    if (!fill()) {
+                        endField(length);
+                        break fields;
+                    }
+                    char c = buffer[pos++];
+                    if (c == ',') {
+                        sawContent = true;
+                        endField(length);
+                        continue fields;
+                    }
+                    if (c == '\n') {
+                        endField(length);
+                        break fields;
+                    }
+                    if (c == '\r') {
+                        if (fill() && buffer[pos] == '\n') {
+                            pos++;
+                        }
+                        endField(length);
+                        break fields;
+                    }
+                    sawContent = true;
+                    length = append(length, c);
+                }
+            }
+
+            if (sawContent) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Number of fields in the current record
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return The 1-based line on which the current record starts
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * Returns a view of a field in the current record. The view is reused and
+     * is only valid until the next call to {@link #next()}.
+     */
+    public CharSequence field(int index) {
+        checkIndex(index);
+        return views[index];
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        return new String(record, start(index), fieldEnds[index] - start(index));
+    }
+
+    /**
+     * Parses a decimal integer field without creating a String.
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        int from = start(index);
+        int to = fieldEnds[index];
+        if (from == to) {
+            throw new NumberFormatException("Empty numeric field on line " + recordLine);
+        }
+        boolean negative = record[from] == '-';
+        if (negative || record[from] == '+') {
+            from++;
+        }
+        if (from == to) {
+            throw new NumberFormatException("Invalid number on line " + recordLine + ": " + getString(index));
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = record[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number on line " + recordLine + ": " + getString(index));
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Number out of range on line " + recordLine + ": " + getString(index));
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range on line " + recordLine + ": " + getString(index));
+        }
+        return (int) value;
+    }
+
+    public boolean fieldEquals(int index, String value) {
+        return regionEquals(index, value, false);
+    }
+
+    public boolean fieldEqualsIgnoreCase(int index, String value) {
+        return regionEquals(index, value, true);
+    }
+
+    /**
+     * Rebuilds the current record as comma-separated text. This allocates and is
+     * meant for error messages only.
+     */
+    public String recordText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(record, start(i), fieldEnds[i] - start(i));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --- Internals ---
+
+    // Ensures at least one unread char is buffered; returns false at end of input
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private int append(int length, char c) {
+        if (length == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[length] = c;
+        return length + 1;
+    }
+
+    private void endField(int length) {
+        if (fieldCount == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldEnds.length * 2);
+        }
+        if (fieldCount == views.length) {
+            views = Arrays.copyOf(views, Math.max(8, views.length * 2));
+        }
+        if (views[fieldCount] == null) {
+            views[fieldCount] = new Field(fieldCount);
+        }
+        fieldEnds[fieldCount++] = length;
+    }
+
+    private int start(int index) {
+        return index == 0 ? 0 : fieldEnds[index - 1];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " out of range on line " + recordLine);
+        }
+    }
+
+    private boolean regionEquals(int index, String value, boolean ignoreCase) {
+        checkIndex(index);
+        int from = start(index);
+        int length = fieldEnds[index] - from;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = record[from + i];
+            char b = value.charAt(i);
+            if (a != b && (!ignoreCase || Character.toUpperCase(a) != Character.toUpperCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A reusable window onto one field of the current record.
+     */
+    private final class Field implements CharSequence {
+        private final int index;
+
+        private Field(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return fieldEnds[index] - start(index);
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            return record[start(index) + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(record, start(index), length());
+        }
+    }
+}
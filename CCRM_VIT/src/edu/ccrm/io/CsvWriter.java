@@ -0,0 +1,104 @@
+package edu.ccrm.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes CSV records straight to a buffered stream, one field at a time, so an
+ * export never holds more than one buffer of output in memory.
+ *
+ * Fields that contain a comma, quote or line break are quoted as RFC 4180
+ * requires, which is what {@link CsvReader} expects. Records end with \n.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private boolean atRecordStart = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes UTF-8 to the channel through a 64 KB buffer. Closing the writer closes the channel.
+     */
+    public static CsvWriter create(WritableByteChannel channel) {
+        return new CsvWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE));
+    }
+
+    public CsvWriter field(CharSequence value) throws IOException {
+        separate();
+        if (value == null) {
+            return this;
+        }
+        if (needsQuoting(value)) {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        } else {
+            out.append(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(int value) throws IOException {
+        separate();
+        out.write(Integer.toString(value));
+        return this;
+    }
+
+    public CsvWriter field(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Terminates the current record.
+     */
+    public void endRecord() throws IOException {
+        out.write('\n');
+        atRecordStart = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separate() throws IOException {
+        if (atRecordStart) {
+            atRecordStart = false;
+        } else {
+            out.write(',');
+        }
+    }
+
+    private static boolean needsQuoting(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,43 +1,58 @@
 package edu.ccrm.io;
 
+import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentRequest;
 import edu.ccrm.service.EnrollmentService;
 import edu.ccrm.service.InstructorService; // Import the InstructorService
+import edu.ccrm.service.SavedEnrollment;
 import edu.ccrm.service.StudentService;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class ImportExportService {
-    private static final Path DATA_DIRECTORY = Paths.get("data");
-    private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    // Relative to the working directory unless -Dccrm.data.dir points elsewhere
+    static final Path DATA_DIRECTORY = Paths.get(System.getProperty("ccrm.data.dir", "data"));
+    static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final List<String> CSV_FILES = List.of("students.csv", "instructors.csv", "courses.csv", "enrollments.csv");
 
     // --- Student Methods (MODIFIED) ---
-    public void exportStudents(List<Student> students) {
+    /**
+     * @return true if the file was fully written and swapped into place
+     */
+    public boolean exportStudents(List<Student> students) {
         try {
             Files.createDirectories(DATA_DIRECTORY);
             Path filePath = DATA_DIRECTORY.resolve("students.csv");
-            List<String> lines = students.stream()
-                .map(s -> String.join(",",
-                    s.getFullName(),
-                    s.getEmail(),
-                    s.getDateOfBirth().format(CSV_DATE_FORMATTER),
-                    s.getRegNo(),
-                    String.valueOf(s.isActive()))) // <-- ADDED: Save active status
-                .collect(Collectors.toList());
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeAtomically(filePath, csv -> {
+                for (Student s : students) {
+                    csv.field(s.getFullName())
+                       .field(s.getEmail())
+                       .field(s.getDateOfBirth().format(CSV_DATE_FORMATTER))
+                       .field(s.getRegNo())
+                       .field(s.isActive()); // <-- ADDED: Save active status
+                    csv.endRecord();
+                }
+            });
+            return true;
         } catch (IOException e) {
             System.err.println("Failed to export students: " + e.getMessage());
+            return false;
         }
     }
 
@@ -45,46 +60,45 @@ public class ImportExportService {
         Path filePath = DATA_DIRECTORY.resolve("students.csv");
         if (!Files.exists(filePath)) return;
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            lines.map(line -> {
-                String[] parts = line.split(",");
-                if (parts.length < 4) return null; // Check for at least 4 parts
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 4) continue; // Check for at least 4 parts
                 try {
-                    Student student = new Student(parts[0], parts[1], LocalDate.parse(parts[2], CSV_DATE_FORMATTER), parts[3]);
+                    Student student = new Student(csv.getString(0), csv.getString(1), parseDate(csv.field(2)), csv.getString(3));
                     // If status column exists, parse it. Defaults to true if missing (for backward compatibility).
-                    if (parts.length > 4) {
-                        student.setActive(Boolean.parseBoolean(parts[4])); // <-- ADDED: Load active status
+                    if (csv.getFieldCount() > 4) {
+                        student.setActive(csv.fieldEqualsIgnoreCase(4, "true"));
                     }
-                    return student;
-                } catch (DateTimeParseException e) {
-                    System.err.println("Skipping student line due to invalid date format: " + line);
-                    return null;
+                    studentService.addStudent(student);
+                } catch (DateTimeException e) {
+                    System.err.println("Skipping student line due to invalid date format: " + csv.recordText());
                 }
-            })
-            .filter(java.util.Objects::nonNull)
-            .forEach(studentService::addStudent);
+            }
         } catch (IOException e) {
             System.err.println("Failed to import students: " + e.getMessage());
         }
     }
 
     // --- Instructor Methods (NEW) ---
-    public void exportInstructors(List<Instructor> instructors) {
+    public boolean exportInstructors(List<Instructor> instructors) {
         try {
             Files.createDirectories(DATA_DIRECTORY);
             Path filePath = DATA_DIRECTORY.resolve("instructors.csv");
-            List<String> lines = instructors.stream()
-                .map(i -> String.join(",",
-                    i.getId(),
-                    i.getFullName(),
-                    i.getEmail(),
-                    i.getDateOfBirth().format(CSV_DATE_FORMATTER),
-                    i.getEmployeeId(),
-                    i.getDepartment()))
-                .collect(Collectors.toList());
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeAtomically(filePath, csv -> {
+                for (Instructor i : instructors) {
+                    csv.field(i.getId())
+                       .field(i.getFullName())
+                       .field(i.getEmail())
+                       .field(i.getDateOfBirth().format(CSV_DATE_FORMATTER))
+                       .field(i.getEmployeeId())
+                       .field(i.getDepartment());
+                    csv.endRecord();
+                }
+            });
+            return true;
         } catch (IOException e) {
             System.err.println("Failed to export instructors: " + e.getMessage());
+            return false;
         }
     }
 
@@ -92,44 +106,43 @@ public class ImportExportService {
         Path filePath = DATA_DIRECTORY.resolve("instructors.csv");
         if (!Files.exists(filePath)) return;
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            lines.map(line -> {
-                String[] parts = line.split(",");
-                if (parts.length < 6) return null;
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 6) continue;
                 try {
-                    return new Instructor(parts[0], parts[1], parts[2], LocalDate.parse(parts[3], CSV_DATE_FORMATTER), parts[4], parts[5]);
-                } catch (DateTimeParseException e) {
-                    System.err.println("Skipping instructor line due to invalid date format: " + line);
-                    return null;
+                    instructorService.addInstructor(new Instructor(csv.getString(0), csv.getString(1), csv.getString(2),
+                            parseDate(csv.field(3)), csv.getString(4), csv.getString(5)));
+                } catch (DateTimeException e) {
+                    System.err.println("Skipping instructor line due to invalid date format: " + csv.recordText());
                 }
-            })
-            .filter(java.util.Objects::nonNull)
-            .forEach(instructorService::addInstructor);
+            }
         } catch (IOException e) {
             System.err.println("Failed to import instructors: " + e.getMessage());
         }
     }
 
     // --- Course Methods (UPDATED) ---
-    public void exportCourses(List<Course> courses) {
+    public boolean exportCourses(List<Course> courses) {
         try {
             Files.createDirectories(DATA_DIRECTORY);
             Path filePath = DATA_DIRECTORY.resolve("courses.csv");
-            List<String> lines = courses.stream()
-                .map(c -> {
+            writeAtomically(filePath, csv -> {
+                for (Course c : courses) {
                     String instructorId = (c.getInstructor() != null) ? c.getInstructor().getEmployeeId() : "NULL";
-                    return String.join(",",
-                        c.getCode(),
-                        c.getTitle(),
-                        String.valueOf(c.getCredits()),
-                        c.getDepartment(),
-                        c.getSemester().name(),
-                        instructorId); // Add instructor ID to the CSV
-                })
-                .collect(Collectors.toList());
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                    csv.field(c.getCode())
+                       .field(c.getTitle())
+                       .field(c.getCredits())
+                       .field(c.getDepartment())
+                       .field(c.getSemester().name())
+                       .field(instructorId) // Add instructor ID to the CSV
+                       .field(c.getCapacity());
+                    csv.endRecord();
+                }
+            });
+            return true;
         } catch (IOException e) {
             System.err.println("Failed to export courses: " + e.getMessage());
+            return false;
         }
     }
 
@@ -137,83 +150,316 @@ public class ImportExportService {
         Path filePath = DATA_DIRECTORY.resolve("courses.csv");
         if (!Files.exists(filePath)) return;
         
-        try (Stream<String> lines = Files.lines(filePath)) {
-            lines.forEach(line -> {
-                String[] parts = line.split(",");
-                if (parts.length < 5) return;
-
-                Course course = new Course.Builder(parts[0], parts[1])
-                        .credits(Integer.parseInt(parts[2]))
-                        .department(parts[3])
-                        .semester(Semester.valueOf(parts[4]))
-                        .build();
-                
-                // If instructor ID is present, find and assign the instructor
-                if (parts.length > 5 && !"NULL".equalsIgnoreCase(parts[5])) {
-                    instructorService.findInstructorByEmployeeId(parts[5])
-                        .ifPresent(course::setInstructor);
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 5) continue;
+                try {
+                    Course.Builder builder = new Course.Builder(csv.getString(0), csv.getString(1))
+                            .credits(csv.getInt(2))
+                            .department(csv.getString(3))
+                            .semester(parseEnum(csv.field(4), Semester.values()));
+                    // Files written before capacities existed have no seventh column
+                    if (csv.getFieldCount() > 6) {
+                        builder.capacity(csv.getInt(6));
+                    }
+                    Course course = builder.build();
+
+                    // If instructor ID is present, find and assign the instructor
+                    if (csv.getFieldCount() > 5 && !csv.fieldEqualsIgnoreCase(5, "NULL")) {
+                        instructorService.findInstructorByEmployeeId(csv.getString(5))
+                            .ifPresent(course::setInstructor);
+                    }
+
+                    courseService.addCourse(course);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping course line " + csv.getLineNumber() + ": " + e.getMessage());
                 }
-                
-                courseService.addCourse(course);
-            });
-        } catch (IOException | IllegalArgumentException e) {
+            }
+        } catch (IOException e) {
             System.err.println("Failed to import courses: " + e.getMessage());
         }
     }
 
     // --- Enrollment Methods ---
-    public void exportEnrollments(List<Student> students) {
+    public boolean exportEnrollments(List<Student> students) {
         try {
             Files.createDirectories(DATA_DIRECTORY);
             Path filePath = DATA_DIRECTORY.resolve("enrollments.csv");
-            List<String> lines = students.stream()
-                .flatMap(student -> student.getEnrolledCourses().stream()
-                    .map(enrollment -> {
-                        String grade = (enrollment.getGrade() == null) ? "NULL" : enrollment.getGrade().name();
-                        return String.join(",",
-                            student.getRegNo(),
-                            enrollment.getCourse().getCode(),
-                            grade);
-                    }))
-                .collect(Collectors.toList());
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeAtomically(filePath, csv -> {
+                for (Student student : students) {
+                    // The list is live, so hold the student's lock while it is walked
+                    ReentrantLock lock = DataStore.getInstance().lockFor(student.getRegNo());
+                    lock.lock();
+                    try {
+                        for (Enrollment enrollment : student.getEnrolledCourses()) {
+                            csv.field(student.getRegNo())
+                               .field(enrollment.getCourse().getCode())
+                               .field((enrollment.getGrade() == null) ? "NULL" : enrollment.getGrade().name());
+                            csv.endRecord();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+            return true;
         } catch (IOException e) {
             System.err.println("Failed to export enrollments: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // --- Waitlist Methods ---
+    /**
+     * Writes one courseCode,regNo row per waiting student, in promotion order.
+     */
+    public boolean exportWaitlists(List<Course> courses, EnrollmentService enrollmentService) {
+        try {
+            Files.createDirectories(DATA_DIRECTORY);
+            Path filePath = DATA_DIRECTORY.resolve("waitlists.csv");
+            writeAtomically(filePath, csv -> {
+                for (Course course : courses) {
+                    for (String regNo : enrollmentService.getWaitlist(course)) {
+                        csv.field(course.getCode()).field(regNo);
+                        csv.endRecord();
+                    }
+                }
+            });
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to export waitlists: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Rebuilds the waitlists. Load this after the enrollments so that seat
+     * counts are final and nobody is promoted into a seat they already hold.
+     */
+    public void importWaitlists(StudentService studentService, CourseService courseService, EnrollmentService enrollmentService) {
+        Path filePath = DATA_DIRECTORY.resolve("waitlists.csv");
+        if (!Files.exists(filePath)) return;
+
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 2) continue;
+                Optional<Course> course = courseService.findCourseByCode(csv.getString(0));
+                Optional<Student> student = studentService.findStudentByRegNo(csv.getString(1));
+                if (course.isPresent() && student.isPresent()) {
+                    enrollmentService.joinWaitlist(student.get(), course.get());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to import waitlists: " + e.getMessage());
         }
     }
+
+    @FunctionalInterface
+    interface CsvBody {
+        void write(CsvWriter csv) throws IOException;
+    }
+
+    /**
+     * Writes to a temp file beside the target, forces it to disk and renames it
+     * over the target. Readers, and a crash at any point, see either the old
+     * file or the complete new one, never a partial write.
+     */
+    static void writeAtomically(Path target, CsvBody body) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             CsvWriter csv = CsvWriter.create(channel)) {
+            body.write(csv);
+            csv.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
     
     public void importEnrollments(StudentService studentService, CourseService courseService, EnrollmentService enrollmentService) {
         Path filePath = DATA_DIRECTORY.resolve("enrollments.csv");
         if (!Files.exists(filePath)) return;
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            lines.forEach(line -> {
-                String[] parts = line.split(",");
-                if (parts.length < 3) return;
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            List<SavedEnrollment> rows = new ArrayList<>();
+            readEnrollmentRows(csv, studentService, courseService, rows::add);
+            enrollmentService.restoreEnrollments(rows);
+        } catch (IOException e) {
+            System.err.println("Failed to import enrollments: " + e.getMessage());
+        }
+    }
 
-                Optional<Student> studentOpt = studentService.findStudentByRegNo(parts[0]);
-                Optional<Course> courseOpt = courseService.findCourseByCode(parts[1]);
-                
-                if (studentOpt.isPresent() && courseOpt.isPresent()) {
-                    try {
-                        // Enroll silently, ignoring exceptions for duplicates on load
-                        try {
-                           enrollmentService.enrollStudent(studentOpt.get(), courseOpt.get());
-                        } catch (Exception e) {
-                           // This is expected if already enrolled
-                        }
-                        
-                        // Assign grade if it exists
-                        if (!"NULL".equalsIgnoreCase(parts[2])) {
-                            enrollmentService.assignGrade(studentOpt.get(), courseOpt.get(), Grade.valueOf(parts[2]));
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Could not process enrollment line: " + line + " | Reason: " + e.getMessage());
-                    }
+    /**
+     * Parses enrollment rows and hands each resolved row to the sink. Rows naming
+     * an unknown student or course are dropped. This only reads the store, so
+     * several chunks of the file can be parsed at the same time.
+     */
+    void readEnrollmentRows(CsvReader csv, StudentService studentService, CourseService courseService,
+                            Consumer<SavedEnrollment> sink) throws IOException {
+        // Rows are written grouped by student, so remember the last one to skip repeat lookups
+        Student student = null;
+        while (csv.next()) {
+            if (csv.getFieldCount() < 3) continue;
+
+            if (student == null || !csv.fieldEquals(0, student.getRegNo())) {
+                student = studentService.findStudentByRegNo(csv.getString(0)).orElse(null);
+            }
+            Optional<Course> courseOpt = courseService.findCourseByCode(csv.getString(1));
+            if (student == null || courseOpt.isEmpty()) continue;
+
+            Grade grade = null;
+            if (!csv.fieldEqualsIgnoreCase(2, "NULL")) {
+                try {
+                    grade = parseEnum(csv.field(2), Grade.values());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Could not process enrollment line: " + csv.recordText() + " | Reason: " + e.getMessage());
                 }
-            });
+            }
+            sink.accept(new SavedEnrollment(student, courseOpt.get(), grade));
+        }
+    }
+
+    /**
+     * Reads a bulk registration file of regNo,courseCode lines.
+     * @return The requests in file order, or an empty list if the file could not be read
+     */
+    public List<EnrollmentRequest> readEnrollmentRequests(Path file) {
+        List<EnrollmentRequest> requests = new ArrayList<>();
+        try (CsvReader csv = CsvReader.open(file)) {
+            while (csv.next()) {
+                if (csv.getFieldCount() < 2) {
+                    System.err.println("Skipping request line " + csv.getLineNumber() + ": " + csv.recordText());
+                    continue;
+                }
+                requests.add(new EnrollmentRequest(csv.getString(0).trim(), csv.getString(1).trim()));
+            }
         } catch (IOException e) {
-            System.err.println("Failed to import enrollments: " + e.getMessage());
+            System.err.println("Failed to read enrollment requests: " + e.getMessage());
+            return List.of();
+        }
+        return requests;
+    }
+
+    // --- Binary Snapshot Methods ---
+
+    /**
+     * Writes the whole store to data/snapshot.bin. Together with the CSV import
+     * methods this converts CSV to binary; importBinarySnapshot followed by the
+     * CSV exports converts back.
+     * @return true if the file was fully written and swapped into place
+     */
+    public boolean exportBinarySnapshot(List<Student> students, List<Instructor> instructors, List<Course> courses) {
+        try {
+            Files.createDirectories(DATA_DIRECTORY);
+            BinarySnapshot.write(BinarySnapshot.SNAPSHOT_FILE, students, instructors, courses);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to export binary snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Loads data/snapshot.bin into the store through the services.
+     * @return false if the file is missing or unreadable, in which case nothing was loaded
+     */
+    public boolean importBinarySnapshot(StudentService studentService, InstructorService instructorService,
+                                        CourseService courseService, EnrollmentService enrollmentService) {
+        if (!Files.exists(BinarySnapshot.SNAPSHOT_FILE)) return false;
+
+        BinarySnapshot.Contents contents;
+        try {
+            contents = BinarySnapshot.read(BinarySnapshot.SNAPSHOT_FILE);
+        } catch (IOException e) {
+            System.err.println("Failed to import binary snapshot: " + e.getMessage());
+            return false;
+        }
+        contents.instructors().forEach(instructorService::addInstructor);
+        contents.courses().forEach(courseService::addCourse);
+        contents.students().forEach(studentService::addStudent);
+        enrollmentService.restoreEnrollments(contents.enrollments());
+        return true;
+    }
+
+    /**
+     * Opens data/snapshot.bin for read-mostly mode. Instructors and courses are
+     * loaded through the services; students are left in the file for the
+     * returned source to build on demand.
+     * @return The source, or null if the file is missing or unreadable
+     */
+    public MappedStudentSource openStudentSource(InstructorService instructorService, CourseService courseService) {
+        if (!Files.exists(BinarySnapshot.SNAPSHOT_FILE)) return null;
+
+        try {
+            MappedStudentSource source = MappedStudentSource.open(BinarySnapshot.SNAPSHOT_FILE);
+            source.getInstructors().forEach(instructorService::addInstructor);
+            source.getCourses().forEach(courseService::addCourse);
+            return source;
+        } catch (IOException e) {
+            System.err.println("Failed to open binary snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The binary snapshot is fresh if it exists and no CSV file has been
+     * modified after it, e.g. by hand-editing students.csv.
+     */
+    public boolean isBinarySnapshotFresh() {
+        try {
+            if (!Files.exists(BinarySnapshot.SNAPSHOT_FILE)) return false;
+            FileTime snapshotTime = Files.getLastModifiedTime(BinarySnapshot.SNAPSHOT_FILE);
+            for (String name : CSV_FILES) {
+                Path csv = DATA_DIRECTORY.resolve(name);
+                if (Files.exists(csv) && Files.getLastModifiedTime(csv).compareTo(snapshotTime) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // --- Field parsing helpers for CsvReader views ---
+
+    /**
+     * Parses a dd-MM-yyyy date straight from the field's characters, falling back
+     * to the formatter for anything that is not in that exact shape.
+     */
+    static LocalDate parseDate(CharSequence text) {
+        if (text.length() == 10 && text.charAt(2) == '-' && text.charAt(5) == '-') {
+            int day = digits(text, 0, 2);
+            int month = digits(text, 3, 5);
+            int year = digits(text, 6, 10);
+            if (day >= 0 && month >= 0 && year >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text, CSV_DATE_FORMATTER);
+    }
+
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Matches an enum constant by exact name, like valueOf, without building a String.
+     */
+    static <E extends Enum<E>> E parseEnum(CharSequence text, E[] values) {
+        for (E value : values) {
+            if (value.name().contentEquals(text)) {
+                return value;
+            }
         }
+        throw new IllegalArgumentException("No constant named " + text);
     }
 }
\ No newline at end of file
@@ -0,0 +1,416 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.MutationListener;
+import edu.ccrm.domain.*;
+import edu.ccrm.exception.CourseFullException;
+import edu.ccrm.exception.DuplicateEnrollmentException;
+import edu.ccrm.exception.MaxCreditLimitExceededException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.StudentService;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only write-ahead journal of every change made through the services.
+ *
+ * Each change is one CSV record in data/journal.log. A change returns to its
+ * caller only after its record has been forced to disk. Records that arrive
+ * while a flush is running are batched: the next caller writes all of them with
+ * a single fsync (group commit). Enrollment changes arrive under the student's
+ * stripe lock, so their records are only queued there and the wait for the disk
+ * happens in {@link #afterUnlock}, keeping other writers off the lock meanwhile.
+ * At startup the last CSV snapshot is loaded and the journal is
+ * replayed on top of it. A checkpoint writes a new snapshot and then empties
+ * the journal of the records the snapshot covers.
+ *
+ * If a write fails, the journal stops: no later change is acknowledged as
+ * durable, and the caller of every change gets an UncheckedIOException, until
+ * a checkpoint writes a snapshot holding those changes.
+ *
+ * Replay is idempotent. Adds of records that already exist are skipped,
+ * duplicate enrollments are ignored, and grades simply overwrite. So a crash
+ * after the snapshot is written but before the journal is truncated is safe.
+ */
+public class Journal implements MutationListener, Closeable {
+    public static final Path JOURNAL_FILE = ImportExportService.DATA_DIRECTORY.resolve("journal.log");
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    // Guarded by lock
+    private StringBuilder pending = new StringBuilder();
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private boolean checkpointing; // flushes are held back while a snapshot is written
+    private IOException failure; // set when a write fails; cleared by a checkpoint
+
+    // Highest record queued by each thread and not yet waited for; 0 if none
+    private final ThreadLocal<long[]> owed = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Journal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the journal for appending, creating it if needed.
+     */
+    public static Journal open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return new Journal(channel);
+    }
+
+    // --- MutationListener: one record per change ---
+
+    @Override
+    public void studentAdded(Student s) {
+        append(record("STUDENT", s.getFullName(), s.getEmail(),
+                s.getDateOfBirth().format(ImportExportService.CSV_DATE_FORMATTER), s.getRegNo(), String.valueOf(s.isActive())));
+    }
+
+    @Override
+    public void studentUpdated(Student s) {
+        studentAdded(s); // STUDENT records are upserts
+    }
+
+    @Override
+    public void instructorAdded(Instructor i) {
+        append(record("INSTRUCTOR", i.getId(), i.getFullName(), i.getEmail(),
+                i.getDateOfBirth().format(ImportExportService.CSV_DATE_FORMATTER), i.getEmployeeId(), i.getDepartment()));
+    }
+
+    @Override
+    public void courseAdded(Course c) {
+        String instructorId = (c.getInstructor() != null) ? c.getInstructor().getEmployeeId() : "NULL";
+        append(record("COURSE", c.getCode(), c.getTitle(), String.valueOf(c.getCredits()), c.getDepartment(),
+                c.getSemester().name(), instructorId, String.valueOf(c.getCapacity())));
+    }
+
+    @Override
+    public void instructorAssigned(Course course, Instructor instructor) {
+        append(record("ASSIGN", course.getCode(), instructor.getEmployeeId()));
+    }
+
+    @Override
+    public void enrolled(Enrollment e) {
+        enqueue(record("ENROLL", e.getStudent().getRegNo(), e.getCourse().getCode()));
+    }
+
+    /**
+     * Writes the whole group as one append, so a batch costs a single fsync.
+     */
+    @Override
+    public void enrolledAll(List<Enrollment> enrollments) {
+        StringBuilder records = new StringBuilder();
+        for (Enrollment e : enrollments) {
+            records.append(record("ENROLL", e.getStudent().getRegNo(), e.getCourse().getCode()));
+        }
+        if (!records.isEmpty()) {
+            enqueue(records.toString());
+        }
+    }
+
+    @Override
+    public void waitlisted(Course course, Student student) {
+        append(record("WAITLIST", student.getRegNo(), course.getCode()));
+    }
+
+    @Override
+    public void unenrolled(Enrollment e) {
+        enqueue(record("UNENROLL", e.getStudent().getRegNo(), e.getCourse().getCode()));
+    }
+
+    @Override
+    public void gradeAssigned(Enrollment e, Grade previous) {
+        String grade = (e.getGrade() == null) ? "NULL" : e.getGrade().name();
+        enqueue(record("GRADE", e.getStudent().getRegNo(), e.getCourse().getCode(), grade));
+    }
+
+    /**
+     * Waits until every record this thread queued under a stripe lock is on disk.
+     */
+    @Override
+    public void afterUnlock() {
+        long[] seq = owed.get();
+        if (seq[0] != 0) {
+            long awaited = seq[0];
+            seq[0] = 0;
+            awaitDurable(awaited);
+        }
+    }
+
+    // --- Group commit ---
+
+    private void append(String record) {
+        awaitDurable(queue(record));
+    }
+
+    // For changes made under a stripe lock; the caller waits in afterUnlock
+    private void enqueue(String record) {
+        owed.get()[0] = queue(record);
+    }
+
+    private long queue(String record) {
+        lock.lock();
+        try {
+            pending.append(record);
+            return ++appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException if the journal has failed, so the record is not durable
+     */
+    private void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed; this change will not survive a crash"
+                            + " until the data is saved", failure);
+                }
+                if (flushing || checkpointing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Become the leader: write everything queued so far with one fsync
+                flushing = true;
+                StringBuilder batch = pending;
+                long batchSeq = appendedSeq;
+                pending = new StringBuilder();
+                lock.unlock();
+                IOException failed = null;
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    failed = e;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    if (failed == null) {
+                        durableSeq = batchSeq;
+                    } else {
+                        // Keep the batch queued, in order, for the checkpoint that clears the failure
+                        failure = failed;
+                        pending = batch.append(pending);
+                    }
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(CharSequence batch) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Writes a snapshot and empties the journal of every record it covers.
+     *
+     * A change is applied before its record is queued, so every record queued
+     * before the snapshot starts is already in it. Those records are marked
+     * first; records queued while the snapshot is written stay queued, and
+     * flushes wait until the checkpoint is done, so the file only ever holds
+     * marked records until it is truncated. The journal lock is not held while
+     * the snapshot runs, since writers queue records under their stripe locks
+     * and the snapshot takes stripe locks itself.
+     * @param snapshot Writes the snapshot files; returns false if any of them failed
+     * @return true if the snapshot was written and the journal truncated
+     */
+    public boolean checkpoint(BooleanSupplier snapshot) {
+        long markSeq;
+        int markLength;
+        lock.lock();
+        try {
+            while (flushing || checkpointing) {
+                flushed.awaitUninterruptibly();
+            }
+            checkpointing = true;
+            markSeq = appendedSeq;
+            markLength = pending.length();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean truncated = false;
+        try {
+            if (!snapshot.getAsBoolean()) {
+                System.err.println("Snapshot incomplete; keeping the journal for replay.");
+                return false;
+            }
+            channel.truncate(0);
+            channel.force(true);
+            truncated = true;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not truncate journal: " + e.getMessage());
+            return false;
+        } finally {
+            lock.lock();
+            try {
+                if (truncated) {
+                    // The marked records describe changes the snapshot already holds
+                    pending.delete(0, markLength);
+                    durableSeq = Math.max(durableSeq, markSeq);
+                    failure = null; // the file is empty again, so a torn write is gone too
+                }
+                checkpointing = false;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static String record(String... fields) {
+        StringWriter out = new StringWriter();
+        try {
+            CsvWriter csv = new CsvWriter(out);
+            for (String field : fields) {
+                csv.field(field);
+            }
+            csv.endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // --- Replay ---
+
+    /**
+     * Re-applies the journal through the services. Call this before the journal
+     * is registered as a listener, or every record would be written out again.
+     * A malformed record, such as a line torn by a crash, is reported and skipped.
+     * @return Number of records applied
+     */
+    public static int replay(Path file, StudentService studentService, InstructorService instructorService,
+                             CourseService courseService, EnrollmentService enrollmentService) {
+        if (!Files.exists(file)) return 0;
+
+        int applied = 0;
+        try (CsvReader csv = CsvReader.open(file)) {
+            while (csv.next()) {
+                try {
+                    if (apply(csv, studentService, instructorService, courseService, enrollmentService)) {
+                        applied++;
+                    } else {
+                        System.err.println("Skipping journal record on line " + csv.getLineNumber() + ": " + csv.recordText());
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping journal record on line " + csv.getLineNumber() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to replay journal: " + e.getMessage());
+        }
+        return applied;
+    }
+
+    private static boolean apply(CsvReader csv, StudentService studentService, InstructorService instructorService,
+                                 CourseService courseService, EnrollmentService enrollmentService) {
+        int n = csv.getFieldCount();
+        if (csv.fieldEquals(0, "STUDENT") && n == 6) {
+            Optional<Student> existing = studentService.findStudentByRegNo(csv.getString(4));
+            if (existing.isPresent()) {
+                Student student = existing.get();
+                student.setFullName(csv.getString(1));
+                student.setEmail(csv.getString(2));
+                student.setActive(csv.fieldEqualsIgnoreCase(5, "true"));
+                studentService.updateStudent(student);
+            } else {
+                Student student = new Student(csv.getString(1), csv.getString(2),
+                        ImportExportService.parseDate(csv.field(3)), csv.getString(4));
+                student.setActive(csv.fieldEqualsIgnoreCase(5, "true"));
+                studentService.addStudent(student);
+            }
+            return true;
+        }
+        if (csv.fieldEquals(0, "INSTRUCTOR") && n == 7) {
+            if (instructorService.findInstructorByEmployeeId(csv.getString(5)).isEmpty()) {
+                instructorService.addInstructor(new Instructor(csv.getString(1), csv.getString(2), csv.getString(3),
+                        ImportExportService.parseDate(csv.field(4)), csv.getString(5), csv.getString(6)));
+            }
+            return true;
+        }
+        if (csv.fieldEquals(0, "COURSE") && (n == 7 || n == 8)) {
+            if (courseService.findCourseByCode(csv.getString(1)).isEmpty()) {
+                Course course = new Course.Builder(csv.getString(1), csv.getString(2))
+                        .credits(csv.getInt(3))
+                        .department(csv.getString(4))
+                        .semester(ImportExportService.parseEnum(csv.field(5), Semester.values()))
+                        .capacity(n == 8 ? csv.getInt(7) : Course.UNLIMITED)
+                        .build();
+                if (!csv.fieldEqualsIgnoreCase(6, "NULL")) {
+                    instructorService.findInstructorByEmployeeId(csv.getString(6)).ifPresent(course::setInstructor);
+                }
+                courseService.addCourse(course);
+            }
+            return true;
+        }
+        if (csv.fieldEquals(0, "ASSIGN") && n == 3) {
+            Optional<Course> course = courseService.findCourseByCode(csv.getString(1));
+            Optional<Instructor> instructor = instructorService.findInstructorByEmployeeId(csv.getString(2));
+            if (course.isPresent() && instructor.isPresent()) {
+                courseService.assignInstructor(course.get(), instructor.get());
+            }
+            return true;
+        }
+        if ((csv.fieldEquals(0, "ENROLL") || csv.fieldEquals(0, "UNENROLL") || csv.fieldEquals(0, "WAITLIST")) && n == 3
+                || csv.fieldEquals(0, "GRADE") && n == 4) {
+            Optional<Student> student = studentService.findStudentByRegNo(csv.getString(1));
+            Optional<Course> course = courseService.findCourseByCode(csv.getString(2));
+            if (student.isEmpty() || course.isEmpty()) {
+                return false;
+            }
+            boolean enrolled = student.get().isEnrolledIn(course.get().getCode());
+            if (csv.fieldEquals(0, "ENROLL") && !enrolled) {
+                try {
+                    enrollmentService.enrollQuietly(student.get(), course.get());
+                } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException e) {
+                    // A later record in the journal explains the final state; keep going
+                }
+            } else if (csv.fieldEquals(0, "WAITLIST") && !enrolled) {
+                enrollmentService.joinWaitlist(student.get(), course.get());
+            } else if (csv.fieldEquals(0, "UNENROLL") && enrolled) {
+                enrollmentService.unenrollQuietly(student.get(), course.get());
+            } else if (csv.fieldEquals(0, "GRADE") && enrolled && !csv.fieldEqualsIgnoreCase(3, "NULL")) {
+                enrollmentService.assignGrade(student.get(), course.get(),
+                        ImportExportService.parseEnum(csv.field(3), Grade.values()));
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,193 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.StudentSource;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Serves students straight out of a memory-mapped {@link BinarySnapshot}.
+ *
+ * Only the instructors and courses are decoded when the file is opened; the
+ * student offset table and enrollment triples are read in place. A student, with its enrollments, is built on each
+ * {@link #load} by binary-searching the offset table, so the heap holds only
+ * the students the caller keeps. The OS pages the file in and out as needed.
+ * The triples are grouped by student, so opening also builds a per-course index
+ * of student indexes (4 bytes per enrollment) for the roster lookups.
+ */
+public final class MappedStudentSource implements StudentSource {
+    private final ByteBuffer mapped;
+    private final List<Instructor> instructors;
+    private final List<Course> courses;
+    private final Map<String, Integer> courseIndex = new HashMap<>();
+    private final int studentCount;
+    private final int offsetTable;   // position of the int[studentCount] offsets
+    private final int enrollmentBase; // position of the first enrollment triple
+    private final int enrollmentCount;
+    // Students of course c are enrolledStudents[courseStart[c] .. courseStart[c + 1])
+    private final int[] courseStart;
+    private final int[] enrolledStudents;
+
+    private MappedStudentSource(ByteBuffer mapped, BinarySnapshot.Catalog catalog) {
+        this.mapped = mapped;
+        this.instructors = catalog.instructors();
+        this.courses = catalog.courses();
+        for (int i = 0; i < courses.size(); i++) {
+            courseIndex.put(courses.get(i).getCode(), i);
+        }
+        this.studentCount = mapped.getInt();
+        this.offsetTable = mapped.position();
+
+        // The enrollment section starts right after the last student record
+        int end = offsetTable + 4 * studentCount;
+        if (studentCount > 0) {
+            ByteBuffer buf = mapped.duplicate().position(mapped.getInt(offsetTable + 4 * (studentCount - 1)));
+            BinarySnapshot.readStudent(buf, new BinarySnapshot.Input(buf));
+            end = buf.position();
+        }
+        this.enrollmentCount = mapped.getInt(end);
+        this.enrollmentBase = end + 4;
+
+        // Loaded enrollments bypass seat claiming, so take each course's seats up front
+        int[] seats = new int[courses.size()];
+        for (int i = 0; i < enrollmentCount; i++) {
+            seats[mapped.getInt(enrollmentBase + i * BinarySnapshot.ENROLLMENT_BYTES + 4)]++;
+        }
+        this.courseStart = new int[seats.length + 1];
+        for (int i = 0; i < seats.length; i++) {
+            courses.get(i).restoreSeatsTaken(seats[i]);
+            courseStart[i + 1] = courseStart[i] + seats[i];
+        }
+        this.enrolledStudents = new int[enrollmentCount];
+        int[] next = Arrays.copyOf(courseStart, seats.length);
+        for (int i = 0; i < enrollmentCount; i++) {
+            int at = enrollmentBase + i * BinarySnapshot.ENROLLMENT_BYTES;
+            enrolledStudents[next[mapped.getInt(at + 4)]++] = mapped.getInt(at);
+        }
+    }
+
+    /**
+     * Maps the snapshot and decodes its catalog. The mapping stays valid after
+     * the file is replaced by a later save, so this keeps serving the data as
+     * it was when opened.
+     */
+    public static MappedStudentSource open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = BinarySnapshot.map(channel, file);
+            return new MappedStudentSource(mapped, BinarySnapshot.readCatalog(mapped, new BinarySnapshot.Input(mapped)));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot " + file + ": " + e, e);
+        }
+    }
+
+    /**
+     * The instructors in the snapshot. Add these to the store before any student is loaded.
+     */
+    public List<Instructor> getInstructors() {
+        return instructors;
+    }
+
+    /**
+     * The courses in the snapshot. Loaded enrollments refer to these instances,
+     * so these are the ones that must be added to the store.
+     */
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    @Override
+    public Student load(String regNo) {
+        int index = indexOf(regNo);
+        if (index < 0) {
+            return null;
+        }
+        // Each call works on its own view, since buffer positions are not thread-safe
+        ByteBuffer buf = mapped.duplicate().position(mapped.getInt(offsetTable + 4 * index));
+        Student student = BinarySnapshot.readStudent(buf, new BinarySnapshot.Input(buf));
+        int first = buf.getInt(buf.position() - 8);
+        int count = buf.getInt(buf.position() - 4);
+        for (int i = first; i < first + count; i++) {
+            int at = enrollmentBase + i * BinarySnapshot.ENROLLMENT_BYTES;
+            Enrollment enrollment = new Enrollment(student, courses.get(mapped.getInt(at + 4)));
+            student.enrollCourse(enrollment);
+            Grade grade = BinarySnapshot.grade(mapped.get(at + 8));
+            if (grade != null) {
+                enrollment.setGrade(grade);
+            }
+        }
+        return student;
+    }
+
+    @Override
+    public boolean contains(String regNo) {
+        return indexOf(regNo) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return studentCount;
+    }
+
+    @Override
+    public void forEachRegNo(Consumer<String> action) {
+        for (int i = 0; i < studentCount; i++) {
+            action.accept(regNoAt(i));
+        }
+    }
+
+    @Override
+    public void forEachEnrolledRegNo(String courseCode, Consumer<String> action) {
+        Integer course = courseIndex.get(courseCode);
+        if (course == null) {
+            return;
+        }
+        for (int i = courseStart[course]; i < courseStart[course + 1]; i++) {
+            action.accept(regNoAt(enrolledStudents[i]));
+        }
+    }
+
+    @Override
+    public int enrolledCount(String courseCode) {
+        Integer course = courseIndex.get(courseCode);
+        return (course == null) ? 0 : courseStart[course + 1] - courseStart[course];
+    }
+
+    // Binary search over the offset table, which is sorted by regNo
+    private int indexOf(String regNo) {
+        int low = 0;
+        int high = studentCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = regNoAt(mid).compareTo(regNo);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Decodes only the regNo, the first field of the record, with absolute reads
+    private String regNoAt(int index) {
+        int at = mapped.getInt(offsetTable + 4 * index);
+        byte[] bytes = new byte[Short.toUnsignedInt(mapped.getShort(at))];
+        mapped.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package edu.ccrm.metrics;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.service.CourseService;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Times every call to the wrapped service. Calls that throw are also counted as errors.
+ */
+public final class InstrumentedCourseService implements CourseService {
+    private final CourseService delegate;
+    private final OperationTimer add;
+    private final OperationTimer assign;
+    private final OperationTimer find;
+    private final OperationTimer getAll;
+    private final OperationTimer byDepartment;
+    private final OperationTimer bySemester;
+    private final OperationTimer byDepartmentAndSemester;
+
+    public InstrumentedCourseService(CourseService delegate) {
+        this.delegate = delegate;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.add = registry.timer("course.addCourse");
+        this.assign = registry.timer("course.assignInstructor");
+        this.find = registry.timer("course.findCourseByCode");
+        this.getAll = registry.timer("course.getAllCourses");
+        this.byDepartment = registry.timer("course.findCoursesByDepartment");
+        this.bySemester = registry.timer("course.findCoursesBySemester");
+        this.byDepartmentAndSemester = registry.timer("course.findCoursesByDepartmentAndSemester");
+    }
+
+    @Override
+    public boolean addCourse(Course course) {
+        long start = System.nanoTime();
+        try {
+            boolean added = delegate.addCourse(course);
+            if (!added) {
+                add.failed(); // rejected, e.g. a duplicate code
+            }
+            return added;
+        } catch (RuntimeException e) {
+            add.failed();
+            throw e;
+        } finally {
+            add.stop(start);
+        }
+    }
+
+    @Override
+    public void assignInstructor(Course course, Instructor instructor) {
+        long start = System.nanoTime();
+        try {
+            delegate.assignInstructor(course, instructor);
+        } catch (RuntimeException e) {
+            assign.failed();
+            throw e;
+        } finally {
+            assign.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Course> findCourseByCode(String courseCode) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findCourseByCode(courseCode);
+        } catch (RuntimeException e) {
+            find.failed();
+            throw e;
+        } finally {
+            find.stop(start);
+        }
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllCourses();
+        } catch (RuntimeException e) {
+            getAll.failed();
+            throw e;
+        } finally {
+            getAll.stop(start);
+        }
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartment(String department) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findCoursesByDepartment(department);
+        } catch (RuntimeException e) {
+            byDepartment.failed();
+            throw e;
+        } finally {
+            byDepartment.stop(start);
+        }
+    }
+
+    @Override
+    public List<Course> findCoursesBySemester(Semester semester) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findCoursesBySemester(semester);
+        } catch (RuntimeException e) {
+            bySemester.failed();
+            throw e;
+        } finally {
+            bySemester.stop(start);
+        }
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartmentAndSemester(String department, Semester semester) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findCoursesByDepartmentAndSemester(department, semester);
+        } catch (RuntimeException e) {
+            byDepartmentAndSemester.failed();
+            throw e;
+        } finally {
+            byDepartmentAndSemester.stop(start);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package edu.ccrm.metrics;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.CourseFullException;
+import edu.ccrm.exception.DuplicateEnrollmentException;
+import edu.ccrm.exception.MaxCreditLimitExceededException;
+import edu.ccrm.service.BatchAtomicity;
+import edu.ccrm.service.BatchEnrollmentResult;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.SavedEnrollment;
+import java.util.List;
+
+/**
+ * Times every call to the wrapped service. Calls that throw, such as a
+ * rejected enrollment, are also counted as errors.
+ */
+public final class InstrumentedEnrollmentService implements EnrollmentService {
+    private final EnrollmentService delegate;
+    private final OperationTimer enroll;
+    private final OperationTimer enrollQuietly;
+    private final OperationTimer grade;
+    private final OperationTimer gpa;
+    private final OperationTimer unenroll;
+    private final OperationTimer unenrollQuietly;
+    private final OperationTimer transcript;
+    private final OperationTimer roster;
+    private final OperationTimer rosterSize;
+    private final OperationTimer joinWaitlist;
+    private final OperationTimer waitlist;
+    private final OperationTimer batch;
+    private final OperationTimer restore;
+
+    public InstrumentedEnrollmentService(EnrollmentService delegate) {
+        this.delegate = delegate;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.enroll = registry.timer("enrollment.enrollStudent");
+        this.enrollQuietly = registry.timer("enrollment.enrollQuietly");
+        this.grade = registry.timer("enrollment.assignGrade");
+        this.gpa = registry.timer("enrollment.calculateGpa");
+        this.unenroll = registry.timer("enrollment.unenrollStudent");
+        this.unenrollQuietly = registry.timer("enrollment.unenrollQuietly");
+        this.transcript = registry.timer("enrollment.generateTranscript");
+        this.roster = registry.timer("enrollment.getCourseRoster");
+        this.rosterSize = registry.timer("enrollment.getEnrollmentCount");
+        this.joinWaitlist = registry.timer("enrollment.joinWaitlist");
+        this.waitlist = registry.timer("enrollment.getWaitlist");
+        this.batch = registry.timer("enrollment.enrollBatch");
+        this.restore = registry.timer("enrollment.restoreEnrollments");
+    }
+
+    @Override
+    public void enrollStudent(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException {
+        long start = System.nanoTime();
+        try {
+            delegate.enrollStudent(student, course);
+        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException
+                 | RuntimeException e) {
+            enroll.failed();
+            throw e;
+        } finally {
+            enroll.stop(start);
+        }
+    }
+
+    @Override
+    public void enrollQuietly(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException {
+        long start = System.nanoTime();
+        try {
+            delegate.enrollQuietly(student, course);
+        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException
+                 | RuntimeException e) {
+            enrollQuietly.failed();
+            throw e;
+        } finally {
+            enrollQuietly.stop(start);
+        }
+    }
+
+    @Override
+    public void assignGrade(Student student, Course course, Grade grade) {
+        long start = System.nanoTime();
+        try {
+            delegate.assignGrade(student, course, grade);
+        } catch (RuntimeException e) {
+            this.grade.failed();
+            throw e;
+        } finally {
+            this.grade.stop(start);
+        }
+    }
+
+    @Override
+    public double calculateGpa(Student student) {
+        long start = System.nanoTime();
+        try {
+            return delegate.calculateGpa(student);
+        } catch (RuntimeException e) {
+            gpa.failed();
+            throw e;
+        } finally {
+            gpa.stop(start);
+        }
+    }
+
+    @Override
+    public void unenrollStudent(Student student, Course course) {
+        long start = System.nanoTime();
+        try {
+            delegate.unenrollStudent(student, course);
+        } catch (RuntimeException e) {
+            unenroll.failed();
+            throw e;
+        } finally {
+            unenroll.stop(start);
+        }
+    }
+
+    @Override
+    public boolean unenrollQuietly(Student student, Course course) {
+        long start = System.nanoTime();
+        try {
+            return delegate.unenrollQuietly(student, course);
+        } catch (RuntimeException e) {
+            unenrollQuietly.failed();
+            throw e;
+        } finally {
+            unenrollQuietly.stop(start);
+        }
+    }
+
+    @Override
+    public void generateTranscript(Student student) {
+        long start = System.nanoTime();
+        try {
+            delegate.generateTranscript(student);
+        } catch (RuntimeException e) {
+            transcript.failed();
+            throw e;
+        } finally {
+            transcript.stop(start);
+        }
+    }
+
+    @Override
+    public List<Enrollment> getCourseRoster(Course course) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getCourseRoster(course);
+        } catch (RuntimeException e) {
+            roster.failed();
+            throw e;
+        } finally {
+            roster.stop(start);
+        }
+    }
+
+    @Override
+    public int getEnrollmentCount(Course course) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEnrollmentCount(course);
+        } catch (RuntimeException e) {
+            rosterSize.failed();
+            throw e;
+        } finally {
+            rosterSize.stop(start);
+        }
+    }
+
+    @Override
+    public int joinWaitlist(Student student, Course course) {
+        long start = System.nanoTime();
+        try {
+            return delegate.joinWaitlist(student, course);
+        } catch (RuntimeException e) {
+            joinWaitlist.failed();
+            throw e;
+        } finally {
+            joinWaitlist.stop(start);
+        }
+    }
+
+    @Override
+    public List<String> getWaitlist(Course course) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getWaitlist(course);
+        } catch (RuntimeException e) {
+            waitlist.failed();
+            throw e;
+        } finally {
+            waitlist.stop(start);
+        }
+    }
+
+    @Override
+    public BatchEnrollmentResult enrollBatch(List<EnrollmentRequest> requests, BatchAtomicity atomicity) {
+        long start = System.nanoTime();
+        try {
+            return delegate.enrollBatch(requests, atomicity);
+        } catch (RuntimeException e) {
+            batch.failed();
+            throw e;
+        } finally {
+            batch.stop(start);
+        }
+    }
+
+    @Override
+    public int restoreEnrollments(List<SavedEnrollment> saved) {
+        long start = System.nanoTime();
+        try {
+            return delegate.restoreEnrollments(saved);
+        } catch (RuntimeException e) {
+            restore.failed();
+            throw e;
+        } finally {
+            restore.stop(start);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.ccrm.metrics;
+
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.service.InstructorService;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Times every call to the wrapped service. Calls that throw are also counted as errors.
+ */
+public final class InstrumentedInstructorService implements InstructorService {
+    private final InstructorService delegate;
+    private final OperationTimer add;
+    private final OperationTimer find;
+    private final OperationTimer getAll;
+
+    public InstrumentedInstructorService(InstructorService delegate) {
+        this.delegate = delegate;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.add = registry.timer("instructor.addInstructor");
+        this.find = registry.timer("instructor.findInstructorByEmployeeId");
+        this.getAll = registry.timer("instructor.getAllInstructors");
+    }
+
+    @Override
+    public void addInstructor(Instructor instructor) {
+        long start = System.nanoTime();
+        try {
+            delegate.addInstructor(instructor);
+        } catch (RuntimeException e) {
+            add.failed();
+            throw e;
+        } finally {
+            add.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Instructor> findInstructorByEmployeeId(String employeeId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findInstructorByEmployeeId(employeeId);
+        } catch (RuntimeException e) {
+            find.failed();
+            throw e;
+        } finally {
+            find.stop(start);
+        }
+    }
+
+    @Override
+    public List<Instructor> getAllInstructors() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllInstructors();
+        } catch (RuntimeException e) {
+            getAll.failed();
+            throw e;
+        } finally {
+            getAll.stop(start);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package edu.ccrm.metrics;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.StudentService;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Times every call to the wrapped service. Calls that throw, and students
+ * that are rejected, are also counted as errors.
+ */
+public final class InstrumentedStudentService implements StudentService {
+    private final StudentService delegate;
+    private final OperationTimer add;
+    private final OperationTimer find;
+    private final OperationTimer getAll;
+    private final OperationTimer count;
+    private final OperationTimer update;
+
+    public InstrumentedStudentService(StudentService delegate) {
+        this.delegate = delegate;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.add = registry.timer("student.addStudent");
+        this.find = registry.timer("student.findStudentByRegNo");
+        this.getAll = registry.timer("student.getAllStudents");
+        this.count = registry.timer("student.getStudentCount");
+        this.update = registry.timer("student.updateStudent");
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        long start = System.nanoTime();
+        try {
+            boolean added = delegate.addStudent(student);
+            if (!added) {
+                add.failed(); // rejected, e.g. a duplicate regNo
+            }
+            return added;
+        } catch (RuntimeException e) {
+            add.failed();
+            throw e;
+        } finally {
+            add.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Student> findStudentByRegNo(String regNo) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findStudentByRegNo(regNo);
+        } catch (RuntimeException e) {
+            find.failed();
+            throw e;
+        } finally {
+            find.stop(start);
+        }
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllStudents();
+        } catch (RuntimeException e) {
+            getAll.failed();
+            throw e;
+        } finally {
+            getAll.stop(start);
+        }
+    }
+
+    @Override
+    public int getStudentCount() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getStudentCount();
+        } catch (RuntimeException e) {
+            count.failed();
+            throw e;
+        } finally {
+            count.stop(start);
+        }
+    }
+
+    @Override
+    public void updateStudent(Student student) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateStudent(student);
+        } catch (RuntimeException e) {
+            update.failed();
+            throw e;
+        } finally {
+            update.stop(start);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.ccrm.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Holds every operation timer and publishes each one as an MXBean on the
+ * platform MBean server, where jconsole or any JMX client can read it.
+ *
+ * Instrumentation is opt-in with -Dccrm.metrics=true. When it is off, the
+ * services are not wrapped at all, so the disabled cost is zero rather than a
+ * flag check per call.
+ */
+public final class MetricsRegistry {
+    public static final boolean ENABLED = Boolean.getBoolean("ccrm.metrics");
+
+    private final ConcurrentMap<String, OperationTimer> timers = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    private static final class Holder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the timer for an operation, creating and registering it on first use.
+     * @param name Dotted operation name, e.g. "enrollment.enrollStudent"
+     */
+    public OperationTimer timer(String name) {
+        return timers.computeIfAbsent(name, key -> {
+            OperationTimer timer = new OperationTimer(key);
+            register(timer);
+            return timer;
+        });
+    }
+
+    /**
+     * @return Every timer that has recorded at least one call, by name
+     */
+    public List<OperationTimer> activeTimers() {
+        List<OperationTimer> active = new ArrayList<>();
+        for (OperationTimer timer : timers.values()) {
+            if (timer.getCount() > 0) {
+                active.add(timer);
+            }
+        }
+        active.sort(Comparator.comparing(OperationTimer::getName));
+        return active;
+    }
+
+    public void resetAll() {
+        timers.values().forEach(OperationTimer::reset);
+    }
+
+    private static void register(OperationTimer timer) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("edu.ccrm:type=Operation,name=" + timer.getName());
+            if (!server.isRegistered(name)) {
+                server.registerMBean(timer, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not publish metrics for " + timer.getName() + " over JMX: " + e.getMessage());
+        }
+    }
+}
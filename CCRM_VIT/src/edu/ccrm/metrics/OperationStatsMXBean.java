@@ -0,0 +1,17 @@
+package edu.ccrm.metrics;
+
+/**
+ * JMX view of one instrumented operation, registered as
+ * {@code edu.ccrm:type=Operation,name=<operation>}. Times are in microseconds.
+ */
+public interface OperationStatsMXBean {
+    String getName();
+    long getCount();
+    long getErrors();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getMaxMicros();
+    void reset();
+}
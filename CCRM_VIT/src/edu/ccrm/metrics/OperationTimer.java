@@ -0,0 +1,82 @@
+package edu.ccrm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency histogram of one operation.
+ * Obtain it once from {@link MetricsRegistry#timer} and keep it; recording is
+ * then a field access away from the call site.
+ */
+public final class OperationTimer implements OperationStatsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one call that started at the given {@link System#nanoTime()}.
+     */
+    public void stop(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a call that ended in an exception. Its latency is still recorded by {@link #stop}.
+     */
+    public void failed() {
+        errors.increment();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanNanos() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getPercentileNanos(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latency.getPercentileNanos(0.90) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getPercentileNanos(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMaxNanos() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,303 @@
+package edu.ccrm.report;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
+import edu.ccrm.metrics.OperationTimer;
+import edu.ccrm.service.CourseStatistics;
+import edu.ccrm.service.DepartmentPassRate;
+import edu.ccrm.service.StudentStanding;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds console reports in one reusable buffer and writes each report with a
+ * single print, instead of a println and a String.format per line.
+ *
+ * A renderer is not thread-safe; give each thread its own. The render methods
+ * append to the buffer and return this, so a report is built by chaining them
+ * and finished with {@link #printTo} or {@link #drain}, both of which empty the
+ * buffer for the next report.
+ *
+ * The renderer only reads the objects it is given. Callers that render a
+ * student another thread may be enrolling should hold the student's stripe
+ * lock while rendering.
+ */
+public final class ReportRenderer {
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String RULE = "--------------------------------------------------";
+    // Reports larger than this are not kept around between uses
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final String OPERATION_HEADER = String.format(Locale.ROOT, "%-42s %9s %7s %10s %10s %10s %10s %10s",
+            "Operation", "Calls", "Errors", "Mean", "p50", "p90", "p99", "Max");
+
+    private StringBuilder buffer = new StringBuilder(4096);
+
+    /**
+     * Writes the buffered report and empties the buffer.
+     */
+    public void printTo(PrintStream out) {
+        out.print(buffer);
+        out.flush();
+        reset();
+    }
+
+    /**
+     * @return The buffered report, after which the buffer is empty
+     */
+    public String drain() {
+        String text = buffer.toString();
+        reset();
+        return text;
+    }
+
+    private void reset() {
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(4096);
+        } else {
+            buffer.setLength(0);
+        }
+    }
+
+    public ReportRenderer line(String text) {
+        buffer.append(text).append(NEWLINE);
+        return this;
+    }
+
+    // --- Reports ---
+
+    /**
+     * Same layout as the original println-based transcript.
+     */
+    public ReportRenderer transcript(Student student) {
+        buffer.append(NEWLINE).append("--- TRANSCRIPT ---").append(NEWLINE)
+              .append(student.getProfileDetails()).append(NEWLINE)
+              .append(RULE).append(NEWLINE);
+        if (student.getEnrollmentCount() == 0) {
+            buffer.append("No courses enrolled.").append(NEWLINE);
+        } else {
+            for (Enrollment enrollment : student.getEnrolledCourses()) {
+                enrollment.appendTo(buffer).append(NEWLINE);
+            }
+        }
+        buffer.append(RULE).append(NEWLINE)
+              .append("Cumulative GPA: ");
+        appendFixed(student.getGpa(), 2);
+        buffer.append('\n')
+              .append("--- END OF TRANSCRIPT ---\n").append(NEWLINE);
+        return this;
+    }
+
+    /**
+     * One-line summary: profile, email, status, credits and GPA.
+     */
+    public ReportRenderer studentSummary(Student student) {
+        buffer.append(student.getProfileDetails()).append(" | ").append(student.getEmail()).append(" | ")
+              .append(student.isActive() ? "Active" : "Inactive")
+              .append(" | Credits: ").append(student.getTotalCredits())
+              .append(" | GPA: ");
+        appendFixed(student.getGpa(), 2);
+        buffer.append(NEWLINE);
+        return this;
+    }
+
+    public ReportRenderer studentList(Collection<Student> students) {
+        buffer.append(NEWLINE).append("--- All Students ---").append(NEWLINE);
+        if (students.isEmpty()) {
+            return line("No students found.");
+        }
+        for (Student student : students) {
+            buffer.append(student.getProfileDetails());
+            if (!student.isActive()) {
+                buffer.append(" [DEACTIVATED]");
+            }
+            buffer.append(NEWLINE);
+        }
+        return this;
+    }
+
+    public ReportRenderer instructorList(Collection<Instructor> instructors) {
+        buffer.append(NEWLINE).append("--- All Instructors ---").append(NEWLINE);
+        if (instructors.isEmpty()) {
+            return line("No instructors found.");
+        }
+        for (Instructor instructor : instructors) {
+            line(instructor.getProfileDetails());
+        }
+        return this;
+    }
+
+    public ReportRenderer courseList(String heading, Collection<Course> courses, String emptyMessage) {
+        buffer.append(NEWLINE).append(heading).append(NEWLINE);
+        if (courses.isEmpty()) {
+            return line(emptyMessage);
+        }
+        for (Course course : courses) {
+            buffer.append(course).append(" | Instructor: ")
+                  .append(course.getInstructor() != null ? course.getInstructor().getFullName() : "Not Assigned")
+                  .append(NEWLINE);
+        }
+        return this;
+    }
+
+    /**
+     * @param waitlist RegNos waiting for the course; may be empty
+     */
+    public ReportRenderer roster(Course course, List<Enrollment> roster, List<String> waitlist) {
+        buffer.append(NEWLINE).append("--- Roster for ").append(course.getTitle())
+              .append(" (").append(course.getCode()).append(") ---").append(NEWLINE);
+        if (roster.isEmpty()) {
+            line("No students enrolled.");
+        }
+        for (Enrollment enrollment : roster) {
+            Student student = enrollment.getStudent();
+            buffer.append("  - ").append(student.getFullName()).append(" (").append(student.getRegNo())
+                  .append(") | Grade: ")
+                  .append(enrollment.getGrade() != null ? enrollment.getGrade().name() : "Not Graded")
+                  .append(NEWLINE);
+        }
+        buffer.append("Total Enrolled: ").append(roster.size());
+        if (course.hasCapacityLimit()) {
+            buffer.append(" of ").append(course.getCapacity()).append(" seats");
+        }
+        buffer.append(NEWLINE);
+        if (!waitlist.isEmpty()) {
+            buffer.append("Waitlist (").append(waitlist.size()).append("): ")
+                  .append(String.join(", ", waitlist)).append(NEWLINE);
+        }
+        return this;
+    }
+
+    /**
+     * One line per student: rank, name, GPA and percentile within the scope.
+     */
+    public ReportRenderer standings(String heading, List<StudentStanding> standings, String emptyMessage) {
+        buffer.append(NEWLINE).append(heading).append(NEWLINE);
+        if (standings.isEmpty()) {
+            return line(emptyMessage);
+        }
+        for (StudentStanding standing : standings) {
+            standing(standing);
+        }
+        return this;
+    }
+
+    public ReportRenderer standing(StudentStanding standing) {
+        buffer.append("  #").append(standing.rank()).append(" of ").append(standing.outOf()).append("  ")
+              .append(standing.fullName()).append(" (").append(standing.regNo()).append(") | GPA: ");
+        appendFixed(standing.gpa(), 2);
+        buffer.append(" | Percentile: ");
+        appendFixed(standing.percentile(), 1);
+        buffer.append(NEWLINE);
+        return this;
+    }
+
+    /**
+     * @param counts Indexed by Grade ordinal, with ungraded enrollments in the last slot
+     */
+    public ReportRenderer gradeDistribution(Course course, int[] counts) {
+        buffer.append(NEWLINE).append("--- Grade Distribution for ").append(course.getTitle())
+              .append(" (").append(course.getCode()).append(") ---").append(NEWLINE);
+        for (Grade grade : Grade.values()) {
+            buffer.append("  ").append(grade.name()).append(": ").append(counts[grade.ordinal()]).append(NEWLINE);
+        }
+        buffer.append("  Ungraded: ").append(counts[Grade.values().length]).append(NEWLINE);
+        return this;
+    }
+
+    /**
+     * @param histogram Number of students at each total of enrolled credits
+     */
+    public ReportRenderer creditLoads(int[] histogram) {
+        buffer.append(NEWLINE).append("--- Credit Load ---").append(NEWLINE);
+        for (int credits = 0; credits < histogram.length; credits++) {
+            if (histogram[credits] > 0) {
+                buffer.append("  ").append(credits).append(" credits: ").append(histogram[credits])
+                      .append(" student(s)").append(NEWLINE);
+            }
+        }
+        return this;
+    }
+
+    public ReportRenderer courseStatistics(CourseStatistics stats) {
+        buffer.append(NEWLINE).append("--- Statistics: ").append(stats.getLabel()).append(" ---").append(NEWLINE)
+              .append("Courses: ").append(stats.getCourseCount())
+              .append(" | Enrolled: ").append(stats.getEnrolledCount())
+              .append(" | Graded: ").append(stats.getGradedCount()).append(NEWLINE)
+              .append("Mean Grade Point: ");
+        appendFixed(stats.getMeanGradePoint(), 2);
+        buffer.append(" | Fail Rate: ");
+        appendFixed(stats.getFailRate(), 1);
+        buffer.append('%').append(NEWLINE).append("Grades:");
+        for (Grade grade : Grade.values()) {
+            buffer.append(' ').append(grade.name()).append('=').append(stats.getGradeCount(grade));
+        }
+        buffer.append(NEWLINE);
+        return this;
+    }
+
+    public ReportRenderer passRates(List<DepartmentPassRate> rates) {
+        buffer.append(NEWLINE).append("--- Pass Rate by Department ---").append(NEWLINE);
+        if (rates.isEmpty()) {
+            return line("No graded enrollments yet.");
+        }
+        for (DepartmentPassRate rate : rates) {
+            buffer.append("  ").append(rate.department()).append(": ");
+            appendFixed(rate.passRate(), 1);
+            buffer.append("% passed (").append(rate.passed()).append(" of ").append(rate.graded())
+                  .append(" graded)").append(NEWLINE);
+        }
+        return this;
+    }
+
+    /**
+     * Table of call counts and latency percentiles, in microseconds.
+     */
+    public ReportRenderer operationStats(List<OperationTimer> timers) {
+        buffer.append(NEWLINE).append("--- Operation Statistics (times in microseconds) ---").append(NEWLINE);
+        if (timers.isEmpty()) {
+            return line("No operations recorded yet.");
+        }
+        buffer.append(OPERATION_HEADER).append(NEWLINE);
+        // Same columns as the header, padded by hand
+        for (OperationTimer timer : timers) {
+            buffer.append(timer.getName());
+            pad(42 - timer.getName().length());
+            appendRightAligned(Long.toString(timer.getCount()), 10);
+            appendRightAligned(Long.toString(timer.getErrors()), 8);
+            appendRightAligned(fixed(timer.getMeanMicros(), 1), 11);
+            appendRightAligned(fixed(timer.getP50Micros(), 1), 11);
+            appendRightAligned(fixed(timer.getP90Micros(), 1), 11);
+            appendRightAligned(fixed(timer.getP99Micros(), 1), 11);
+            appendRightAligned(fixed(timer.getMaxMicros(), 1), 11);
+            buffer.append(NEWLINE);
+        }
+        return this;
+    }
+
+    private void appendRightAligned(String text, int width) {
+        pad(width - text.length());
+        buffer.append(text);
+    }
+
+    private void pad(int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            buffer.append(' ');
+        }
+    }
+
+    // Matches %.Nf: HALF_UP on the shortest decimal form of the double
+    private void appendFixed(double value, int decimals) {
+        buffer.append(fixed(value, decimals));
+    }
+
+    private static String fixed(double value, int decimals) {
+        return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+    }
+}
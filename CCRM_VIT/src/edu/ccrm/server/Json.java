@@ -0,0 +1,108 @@
+package edu.ccrm.server;
+
+/**
+ * Minimal JSON writer for the server's responses. Callers emit names and
+ * values in order; commas between members are inserted automatically.
+ */
+final class Json {
+    private final StringBuilder out = new StringBuilder(256);
+    private boolean needsComma;
+
+    Json beginObject() {
+        separate();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    Json endObject() {
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    Json beginArray(String name) {
+        name(name);
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    Json endArray() {
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, String value) {
+        name(name);
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, long value) {
+        name(name);
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, double value) {
+        name(name);
+        // Two decimals, as GPAs are printed everywhere else
+        out.append(Math.round(value * 100) / 100.0);
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, boolean value) {
+        name(name);
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void name(String name) {
+        separate();
+        string(name);
+        out.append(':');
+    }
+
+    private void separate() {
+        if (needsComma) {
+            out.append(',');
+        }
+    }
+
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
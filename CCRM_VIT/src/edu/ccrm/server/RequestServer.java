@@ -0,0 +1,306 @@
+package edu.ccrm.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.CourseFullException;
+import edu.ccrm.exception.DuplicateEnrollmentException;
+import edu.ccrm.exception.MaxCreditLimitExceededException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Headless JSON front end over the services, built on the JDK's HTTP server.
+ *
+ * Each exchange runs on its own virtual thread, so a request that blocks on a
+ * stripe lock or a journal fsync parks cheaply instead of holding a platform
+ * thread. Routes:
+ * <pre>
+ *   GET  /students/{regNo}               student profile
+ *   GET  /students/{regNo}/transcript    enrollments, grades and GPA
+ *   GET  /courses?department=&amp;semester=   course search; both filters optional
+ *   GET  /courses/{code}                 one course with its seat count
+ *   POST /enrollments  regNo, course     enroll
+ *   POST /grades       regNo, course, grade
+ * </pre>
+ * POST parameters may be sent form-encoded in the body or in the query string.
+ */
+public final class RequestServer {
+    private static final int BACKLOG = 4096;
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final DataStore dataStore = DataStore.getInstance();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RequestServer(StudentService studentService, CourseService courseService, EnrollmentService enrollmentService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * Binds the port and starts serving in the background.
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/students/", exchange -> handle(exchange, this::students));
+        server.createContext("/courses", exchange -> handle(exchange, this::courses));
+        server.createContext("/enrollments", exchange -> handle(exchange, this::enroll));
+        server.createContext("/grades", exchange -> handle(exchange, this::grade));
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits up to delaySeconds for those in flight.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+
+    // --- Plumbing ---
+
+    private record Response(int status, String body) {
+        static Response ok(Json json) {
+            return new Response(200, json.toString());
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, new Json().beginObject().field("error", message).endObject().toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Response serve(HttpExchange exchange) throws IOException;
+    }
+
+    private static void handle(HttpExchange exchange, Route route) throws IOException {
+        Response response;
+        try {
+            response = route.serve(exchange);
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Request failed: " + exchange.getRequestURI() + " | " + e);
+            response = Response.error(500, "Internal error");
+        }
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Path segments after the context, e.g. "/students/24BCE1/transcript" -> ["24BCE1", "transcript"]
+    private static List<String> pathAfter(HttpExchange exchange) {
+        String context = exchange.getHttpContext().getPath();
+        String rest = exchange.getRequestURI().getPath().substring(context.length());
+        if (rest.startsWith("/")) rest = rest.substring(1);
+        if (rest.isEmpty()) return List.of();
+        return List.of(rest.split("/"));
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isBlank()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static Response methodNotAllowed() {
+        return Response.error(405, "Method not allowed");
+    }
+
+    // --- Routes ---
+
+    private Response students(HttpExchange exchange) {
+        if (!"GET".equals(exchange.getRequestMethod())) return methodNotAllowed();
+        List<String> path = pathAfter(exchange);
+        if (path.isEmpty() || path.size() > 2 || path.size() == 2 && !path.get(1).equals("transcript")) {
+            return Response.error(404, "No such resource");
+        }
+        Optional<Student> studentOpt = studentService.findStudentByRegNo(path.get(0));
+        if (studentOpt.isEmpty()) {
+            return Response.error(404, "Student not found");
+        }
+        Student student = studentOpt.get();
+        // Read under the student's lock so a concurrent enroll cannot change the list mid-iteration
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            Json json = new Json().beginObject();
+            writeStudent(json, student);
+            if (path.size() == 2) {
+                json.beginArray("enrollments");
+                for (Enrollment enrollment : student.getEnrolledCourses()) {
+                    Course course = enrollment.getCourse();
+                    json.beginObject()
+                        .field("course", course.getCode())
+                        .field("title", course.getTitle())
+                        .field("credits", course.getCredits())
+                        .field("grade", enrollment.getGrade() == null ? null : enrollment.getGrade().name())
+                        .field("enrolledOn", enrollment.getEnrollmentDate().toLocalDate().toString())
+                        .endObject();
+                }
+                json.endArray();
+            }
+            return Response.ok(json.endObject());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Response courses(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) return methodNotAllowed();
+        List<String> path = pathAfter(exchange);
+        if (path.size() == 1) {
+            Optional<Course> course = courseService.findCourseByCode(path.get(0));
+            if (course.isEmpty()) {
+                return Response.error(404, "Course not found");
+            }
+            Json json = new Json().beginObject();
+            writeCourse(json, course.get());
+            return Response.ok(json.endObject());
+        }
+        if (!path.isEmpty()) {
+            return Response.error(404, "No such resource");
+        }
+
+        Map<String, String> params = parameters(exchange);
+        String department = params.get("department");
+        String semesterName = params.get("semester");
+        Semester semester = (semesterName == null) ? null : Semester.valueOf(semesterName.toUpperCase());
+        List<Course> results;
+        if (department != null && semester != null) {
+            results = courseService.findCoursesByDepartmentAndSemester(department, semester);
+        } else if (department != null) {
+            results = courseService.findCoursesByDepartment(department);
+        } else if (semester != null) {
+            results = courseService.findCoursesBySemester(semester);
+        } else {
+            results = courseService.getAllCourses();
+        }
+        Json json = new Json().beginObject().field("count", results.size()).beginArray("courses");
+        for (Course course : results) {
+            json.beginObject();
+            writeCourse(json, course);
+            json.endObject();
+        }
+        return Response.ok(json.endArray().endObject());
+    }
+
+    private Response enroll(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) return methodNotAllowed();
+        Map<String, String> params = parameters(exchange);
+        Optional<Student> student = studentService.findStudentByRegNo(required(params, "regNo"));
+        Optional<Course> course = courseService.findCourseByCode(required(params, "course"));
+        if (student.isEmpty() || course.isEmpty()) {
+            return Response.error(404, student.isEmpty() ? "Student not found" : "Course not found");
+        }
+        try {
+            enrollmentService.enrollQuietly(student.get(), course.get());
+        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException e) {
+            return Response.error(409, e.getMessage());
+        }
+        return new Response(201, new Json().beginObject()
+                .field("regNo", student.get().getRegNo())
+                .field("course", course.get().getCode())
+                .field("seatsTaken", course.get().getSeatsTaken())
+                .endObject().toString());
+    }
+
+    private Response grade(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) return methodNotAllowed();
+        Map<String, String> params = parameters(exchange);
+        Optional<Student> student = studentService.findStudentByRegNo(required(params, "regNo"));
+        Optional<Course> course = courseService.findCourseByCode(required(params, "course"));
+        Grade grade = Grade.valueOf(required(params, "grade").toUpperCase());
+        if (student.isEmpty() || course.isEmpty()) {
+            return Response.error(404, student.isEmpty() ? "Student not found" : "Course not found");
+        }
+        try {
+            enrollmentService.assignGrade(student.get(), course.get(), grade);
+        } catch (NoSuchElementException e) {
+            return Response.error(409, e.getMessage());
+        }
+        return Response.ok(new Json().beginObject()
+                .field("regNo", student.get().getRegNo())
+                .field("course", course.get().getCode())
+                .field("grade", grade.name())
+                .field("gpa", student.get().getGpa())
+                .endObject());
+    }
+
+    private static void writeStudent(Json json, Student student) {
+        json.field("regNo", student.getRegNo())
+            .field("name", student.getFullName())
+            .field("email", student.getEmail())
+            .field("active", student.isActive())
+            .field("credits", student.getTotalCredits())
+            .field("gpa", student.getGpa());
+    }
+
+    private static void writeCourse(Json json, Course course) {
+        json.field("code", course.getCode())
+            .field("title", course.getTitle())
+            .field("credits", course.getCredits())
+            .field("department", course.getDepartment())
+            .field("semester", course.getSemester() == null ? null : course.getSemester().name())
+            .field("instructor", course.getInstructor() == null ? null : course.getInstructor().getFullName())
+            .field("capacity", course.getCapacity())
+            .field("seatsTaken", course.getSeatsTaken());
+    }
+}
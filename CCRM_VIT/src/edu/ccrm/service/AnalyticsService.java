@@ -0,0 +1,35 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate reports over every enrollment.
+ */
+public interface AnalyticsService {
+    /**
+     * Recomputes the analytics from the data store, e.g. after it was reloaded.
+     */
+    void rebuild();
+
+    /**
+     * @return Counts indexed by Grade ordinal, with ungraded enrollments in one extra last slot
+     */
+    int[] getGradeDistribution(Course course);
+
+    /**
+     * @return Course code -> counts, laid out as in {@link #getGradeDistribution}
+     */
+    Map<String, int[]> getGradeDistributions();
+
+    /**
+     * @return Number of students at each total of enrolled credits, indexed by the total
+     */
+    int[] getCreditLoadHistogram();
+
+    /**
+     * @return Pass rates of departments with graded enrollments, by department name
+     */
+    List<DepartmentPassRate> getDepartmentPassRates();
+}
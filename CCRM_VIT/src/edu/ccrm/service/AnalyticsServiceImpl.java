@@ -0,0 +1,176 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationListener;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Answers the analytics from an {@link EnrollmentMatrix} that follows every
+ * change, instead of walking the object graph for each report.
+ *
+ * The matrix is built on the first query, or by {@link #rebuild}, as
+ * described on {@link MutationListener}.
+ *
+ * Writers never lock the matrix: each event is put on a lock-free queue, in
+ * order for any one student since events for a student arrive under its stripe
+ * lock. The queue is applied under the write lock by the next report, or by a
+ * writer in {@link #afterUnlock} once it has grown long; reports share the read
+ * lock for their pass over the arrays.
+ */
+public class AnalyticsServiceImpl implements AnalyticsService, MutationListener {
+    // Backlog at which a writer applies the queue itself, if no report is doing so
+    private static final int DRAIN_THRESHOLD = 4096;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final ReentrantReadWriteLock matrixLock = new ReentrantReadWriteLock();
+    private volatile EnrollmentMatrix matrix; // null until built; changed under the write lock
+    private final Queue<Consumer<EnrollmentMatrix>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    @Override
+    public void rebuild() {
+        dataStore.withAllStripes(() -> {
+            EnrollmentMatrix built = new EnrollmentMatrix();
+            for (Course course : dataStore.courses()) {
+                built.courseId(course);
+            }
+            for (Student student : dataStore.students()) {
+                built.studentId(student.getRegNo());
+                student.forEachEnrollment(e -> built.add(student.getRegNo(), e.getCourse(), e.getGrade()));
+            }
+            matrixLock.writeLock().lock();
+            try {
+                // Everything queued so far is already in the store, and so in the new matrix
+                pending.clear();
+                backlog.set(0);
+                matrix = built;
+            } finally {
+                matrixLock.writeLock().unlock();
+            }
+        });
+    }
+
+    private <T> T query(Function<EnrollmentMatrix, T> report) {
+        if (matrix == null) {
+            synchronized (this) {
+                if (matrix == null) {
+                    rebuild();
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            matrixLock.readLock().lock();
+        } else {
+            matrixLock.writeLock().lock();
+            try {
+                drain();
+                matrixLock.readLock().lock(); // downgrade, so the report sees what was just applied
+            } finally {
+                matrixLock.writeLock().unlock();
+            }
+        }
+        try {
+            return report.apply(matrix);
+        } finally {
+            matrixLock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void drain() {
+        Consumer<EnrollmentMatrix> change;
+        while ((change = pending.poll()) != null) {
+            change.accept(matrix);
+            backlog.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int[] getGradeDistribution(Course course) {
+        return query(m -> m.gradeDistribution(course.getCode()));
+    }
+
+    @Override
+    public Map<String, int[]> getGradeDistributions() {
+        return query(EnrollmentMatrix::gradeDistributions);
+    }
+
+    @Override
+    public int[] getCreditLoadHistogram() {
+        return query(EnrollmentMatrix::creditLoadHistogram);
+    }
+
+    @Override
+    public List<DepartmentPassRate> getDepartmentPassRates() {
+        return query(EnrollmentMatrix::departmentPassRates);
+    }
+
+    // --- Events ---
+
+    @Override
+    public void studentAdded(Student student) {
+        update(m -> m.studentId(student.getRegNo()));
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        update(m -> m.courseId(course));
+    }
+
+    @Override
+    public void enrolled(Enrollment enrollment) {
+        update(m -> m.add(enrollment.getStudent().getRegNo(), enrollment.getCourse(), enrollment.getGrade()));
+    }
+
+    @Override
+    public void enrolledAll(List<Enrollment> enrollments) {
+        update(m -> {
+            for (Enrollment enrollment : enrollments) {
+                m.add(enrollment.getStudent().getRegNo(), enrollment.getCourse(), enrollment.getGrade());
+            }
+        });
+    }
+
+    @Override
+    public void unenrolled(Enrollment enrollment) {
+        update(m -> m.remove(enrollment.getStudent().getRegNo(), enrollment.getCourse()));
+    }
+
+    @Override
+    public void gradeAssigned(Enrollment enrollment, Grade previous) {
+        update(m -> m.setGrade(enrollment.getStudent().getRegNo(), enrollment.getCourse(), enrollment.getGrade()));
+    }
+
+    private void update(Consumer<EnrollmentMatrix> change) {
+        if (matrix != null) {
+            pending.add(change);
+            backlog.incrementAndGet();
+        }
+    }
+
+    /**
+     * Applies the queue if it has grown long and nobody else is applying it.
+     * Runs after the writer has released its stripe lock.
+     */
+    @Override
+    public void afterUnlock() {
+        if (backlog.get() >= DRAIN_THRESHOLD && matrixLock.writeLock().tryLock()) {
+            try {
+                drain();
+            } finally {
+                matrixLock.writeLock().unlock();
+            }
+        }
+    }
+}
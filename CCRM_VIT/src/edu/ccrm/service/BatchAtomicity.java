@@ -0,0 +1,11 @@
+package edu.ccrm.service;
+
+/**
+ * How much of a batch enrollment succeeds or fails together.
+ */
+public enum BatchAtomicity {
+    /** Each student's requests are applied together, or none of them are. */
+    PER_STUDENT,
+    /** The whole batch is applied only if every request in it is valid. */
+    PER_BATCH
+}
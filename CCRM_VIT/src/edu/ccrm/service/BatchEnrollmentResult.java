@@ -0,0 +1,22 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Enrollment;
+import java.util.List;
+
+/**
+ * Outcome of {@link EnrollmentService#enrollBatch}. Every request appears exactly
+ * once, either as an enrollment that was made or as a failure with its reason.
+ */
+public record BatchEnrollmentResult(BatchAtomicity atomicity, int requested, int students,
+                                    List<Enrollment> enrolled, List<Failure> failures, long elapsedNanos) {
+
+    /**
+     * A request that was not applied. Valid requests that were rolled back with
+     * the rest of their student or batch are reported here too.
+     */
+    public record Failure(EnrollmentRequest request, String reason) {}
+
+    public double enrollmentsPerSecond() {
+        return elapsedNanos == 0 ? 0 : enrolled.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+}
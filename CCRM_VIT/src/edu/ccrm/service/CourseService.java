@@ -1,14 +1,20 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
 import edu.ccrm.domain.Semester;
 import java.util.List;
 import java.util.Optional;
 
 public interface CourseService {
-    void addCourse(Course course);
+    /**
+     * @return false if the course was rejected, e.g. because the code is already taken
+     */
+    boolean addCourse(Course course);
+    void assignInstructor(Course course, Instructor instructor);
     Optional<Course> findCourseByCode(String courseCode);
     List<Course> getAllCourses();
     List<Course> findCoursesByDepartment(String department);
     List<Course> findCoursesBySemester(Semester semester);
+    List<Course> findCoursesByDepartmentAndSemester(String department, Semester semester);
 }
\ No newline at end of file
@@ -2,52 +2,69 @@ package edu.ccrm.service;
 
 import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
 import edu.ccrm.domain.Semester;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class CourseServiceImpl implements CourseService {
 
     private final DataStore dataStore = DataStore.getInstance();
 
     @Override
-    public void addCourse(Course course) {
+    public boolean addCourse(Course course) {
         if (course == null || course.getCode() == null) {
             System.err.println("Cannot add a null course or a course with no code.");
-            return;
+            return false;
         }
-        dataStore.courses.put(course.getCode(), course);
+        // Enrollments and rosters point at the existing Course, which holds the seat count,
+        // so a second course with the same code is rejected rather than swapped in.
+        if (!dataStore.addCourse(course)) {
+            System.err.println("Error: A course with code " + course.getCode() + " already exists.");
+            return false;
+        }
+        dataStore.mutations().courseAdded(course);
+        return true;
+    }
+
+    @Override
+    public void assignInstructor(Course course, Instructor instructor) {
+        course.setInstructor(instructor);
+        dataStore.mutations().instructorAssigned(course, instructor);
     }
 
     @Override
     public Optional<Course> findCourseByCode(String courseCode) {
-        return Optional.ofNullable(dataStore.courses.get(courseCode));
+        return Optional.ofNullable(dataStore.getCourse(courseCode));
     }
 
     @Override
     public List<Course> getAllCourses() {
-        return new ArrayList<>(dataStore.courses.values());
+        return new ArrayList<>(dataStore.courses());
     }
 
     /**
-     * Demonstrates using the Stream API and a lambda expression for filtering.
+     * Served from the department index kept by DataStore, so the cost does not
+     * grow with the size of the catalog. Matching is case-insensitive.
+     * @return Immutable snapshot of the matching courses
      */
     @Override
     public List<Course> findCoursesByDepartment(String department) {
-        return dataStore.courses.values().stream()
-                .filter(course -> department.equalsIgnoreCase(course.getDepartment()))
-                .collect(Collectors.toList());
+        return dataStore.getCoursesByDepartment(department);
     }
 
     /**
-     * Demonstrates using the Stream API to filter by an Enum.
+     * Served from the EnumMap semester index kept by DataStore.
+     * @return Immutable snapshot of the matching courses
      */
     @Override
     public List<Course> findCoursesBySemester(Semester semester) {
-        return dataStore.courses.values().stream()
-                .filter(course -> course.getSemester() == semester)
-                .collect(Collectors.toList());
+        return dataStore.getCoursesBySemester(semester);
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartmentAndSemester(String department, Semester semester) {
+        return dataStore.getCoursesByDepartmentAndSemester(department, semester);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Grade;
+
+/**
+ * Enrollment and grade totals for a course, or summed over a group of courses.
+ */
+public final class CourseStatistics {
+    private final String label;
+    private final int courses;
+    private final int enrolled;
+    private final int[] gradeCounts; // indexed by Grade ordinal
+
+    public CourseStatistics(String label, int courses, int enrolled, int[] gradeCounts) {
+        this.label = label;
+        this.courses = courses;
+        this.enrolled = enrolled;
+        this.gradeCounts = gradeCounts.clone();
+    }
+
+    /**
+     * @return What the statistics cover, e.g. a course code or "Department SCOPE"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public int getCourseCount() {
+        return courses;
+    }
+
+    public int getEnrolledCount() {
+        return enrolled;
+    }
+
+    public int getGradeCount(Grade grade) {
+        return gradeCounts[grade.ordinal()];
+    }
+
+    public int getGradedCount() {
+        int graded = 0;
+        for (int count : gradeCounts) {
+            graded += count;
+        }
+        return graded;
+    }
+
+    /**
+     * @return Mean grade point over graded enrollments, or 0.0 if none are graded
+     */
+    public double getMeanGradePoint() {
+        int graded = getGradedCount();
+        if (graded == 0) {
+            return 0.0;
+        }
+        double points = 0;
+        for (Grade grade : Grade.values()) {
+            points += gradeCounts[grade.ordinal()] * grade.getGradePoint();
+        }
+        return points / graded;
+    }
+
+    /**
+     * @return Share of graded enrollments with an F, from 0 to 100
+     */
+    public double getFailRate() {
+        int graded = getGradedCount();
+        return (graded == 0) ? 0.0 : 100.0 * gradeCounts[Grade.F.ordinal()] / graded;
+    }
+}
@@ -0,0 +1,27 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+
+/**
+ * Per-course enrollment and grade statistics, and their totals over a
+ * department, an instructor's courses or a semester.
+ */
+public interface CourseStatisticsService {
+    /**
+     * Recomputes every course's counters from the data store, e.g. after it was reloaded.
+     */
+    void rebuild();
+
+    CourseStatistics getCourseStatistics(Course course);
+
+    /**
+     * @param department Matched case-insensitively
+     */
+    CourseStatistics getDepartmentStatistics(String department);
+
+    CourseStatistics getInstructorStatistics(Instructor instructor);
+
+    CourseStatistics getSemesterStatistics(Semester semester);
+}
@@ -0,0 +1,165 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationListener;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps one array of counters per course, updated on every enrollment,
+ * unenrollment and grade change, so a report only sums the counters of the
+ * courses it covers and never looks at a student.
+ *
+ * The counters are built in one pass over the students' enrollments on the
+ * first query, or by {@link #rebuild}, as described on {@link MutationListener}.
+ * Counters are updated lock-free, so a report taken while grades are being
+ * assigned may count a change in one slot before the other.
+ */
+public class CourseStatisticsServiceImpl implements CourseStatisticsService, MutationListener {
+    private static final Grade[] GRADES = Grade.values();
+    private static final int ENROLLED = GRADES.length; // counter slot after the grade counts
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private volatile ConcurrentMap<String, AtomicIntegerArray> counters; // by course code; null until built
+    private final Object buildLock = new Object();
+
+    @Override
+    public void rebuild() {
+        synchronized (buildLock) {
+            dataStore.withAllStripes(() -> {
+                ConcurrentMap<String, AtomicIntegerArray> built = new ConcurrentHashMap<>();
+                for (Course course : dataStore.courses()) {
+                    built.put(course.getCode(), newCounters());
+                }
+                // One pass over the students, rather than a roster copy per course
+                for (Student student : dataStore.students()) {
+                    student.forEachEnrollment(enrollment -> {
+                        AtomicIntegerArray courseCounters = built.computeIfAbsent(
+                                enrollment.getCourse().getCode(), code -> newCounters());
+                        courseCounters.incrementAndGet(ENROLLED);
+                        if (enrollment.getGrade() != null) {
+                            courseCounters.incrementAndGet(enrollment.getGrade().ordinal());
+                        }
+                    });
+                }
+                counters = built;
+            });
+        }
+    }
+
+    private ConcurrentMap<String, AtomicIntegerArray> counters() {
+        if (counters == null) {
+            synchronized (buildLock) {
+                if (counters == null) {
+                    rebuild();
+                }
+            }
+        }
+        return counters;
+    }
+
+    private static AtomicIntegerArray newCounters() {
+        return new AtomicIntegerArray(GRADES.length + 1);
+    }
+
+    // --- Queries ---
+
+    @Override
+    public CourseStatistics getCourseStatistics(Course course) {
+        return sum(course.getCode(), List.of(course));
+    }
+
+    @Override
+    public CourseStatistics getDepartmentStatistics(String department) {
+        return sum("Department " + department.trim().toUpperCase(Locale.ROOT),
+                dataStore.getCoursesByDepartment(department));
+    }
+
+    @Override
+    public CourseStatistics getInstructorStatistics(Instructor instructor) {
+        List<Course> taught = new ArrayList<>();
+        for (Course course : dataStore.courses()) {
+            if (course.getInstructor() != null
+                    && course.getInstructor().getEmployeeId().equals(instructor.getEmployeeId())) {
+                taught.add(course);
+            }
+        }
+        return sum("Instructor " + instructor.getFullName(), taught);
+    }
+
+    @Override
+    public CourseStatistics getSemesterStatistics(Semester semester) {
+        return sum("Semester " + semester, dataStore.getCoursesBySemester(semester));
+    }
+
+    private CourseStatistics sum(String label, Collection<Course> courses) {
+        ConcurrentMap<String, AtomicIntegerArray> all = counters();
+        int enrolled = 0;
+        int[] gradeCounts = new int[GRADES.length];
+        for (Course course : courses) {
+            AtomicIntegerArray courseCounters = all.get(course.getCode());
+            if (courseCounters == null) {
+                continue;
+            }
+            enrolled += courseCounters.get(ENROLLED);
+            for (int grade = 0; grade < GRADES.length; grade++) {
+                gradeCounts[grade] += courseCounters.get(grade);
+            }
+        }
+        return new CourseStatistics(label, courses.size(), enrolled, gradeCounts);
+    }
+
+    // --- Events ---
+
+    @Override
+    public void enrolled(Enrollment enrollment) {
+        AtomicIntegerArray courseCounters = countersFor(enrollment.getCourse());
+        if (courseCounters != null) {
+            courseCounters.incrementAndGet(ENROLLED);
+            if (enrollment.getGrade() != null) {
+                courseCounters.incrementAndGet(enrollment.getGrade().ordinal());
+            }
+        }
+    }
+
+    @Override
+    public void unenrolled(Enrollment enrollment) {
+        AtomicIntegerArray courseCounters = countersFor(enrollment.getCourse());
+        if (courseCounters != null) {
+            courseCounters.decrementAndGet(ENROLLED);
+            if (enrollment.getGrade() != null) {
+                courseCounters.decrementAndGet(enrollment.getGrade().ordinal());
+            }
+        }
+    }
+
+    @Override
+    public void gradeAssigned(Enrollment enrollment, Grade previous) {
+        AtomicIntegerArray courseCounters = countersFor(enrollment.getCourse());
+        if (courseCounters != null) {
+            if (previous != null) {
+                courseCounters.decrementAndGet(previous.ordinal());
+            }
+            if (enrollment.getGrade() != null) {
+                courseCounters.incrementAndGet(enrollment.getGrade().ordinal());
+            }
+        }
+    }
+
+    // Null until the counters are built
+    private AtomicIntegerArray countersFor(Course course) {
+        ConcurrentMap<String, AtomicIntegerArray> built = counters;
+        return (built == null) ? null : built.computeIfAbsent(course.getCode(), code -> newCounters());
+    }
+}
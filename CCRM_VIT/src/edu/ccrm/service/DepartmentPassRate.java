@@ -0,0 +1,14 @@
+package edu.ccrm.service;
+
+/**
+ * Graded enrollments in a department's courses and how many of them passed.
+ */
+public record DepartmentPassRate(String department, int graded, int passed) {
+
+    /**
+     * @return Passed as a percentage of graded, from 0 to 100
+     */
+    public double passRate() {
+        return (graded == 0) ? 0.0 : 100.0 * passed / graded;
+    }
+}
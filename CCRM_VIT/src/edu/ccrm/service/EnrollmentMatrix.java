@@ -0,0 +1,343 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of every enrollment for analytics. Students, courses
+ * and departments get dense int ids, and each enrollment is one row across
+ * parallel primitive arrays, so a report is a single loop over a few arrays
+ * instead of a walk through Student, Enrollment and Course objects.
+ *
+ * Rows are unordered: removing one moves the last row into its place.
+ * Not thread-safe; {@link AnalyticsServiceImpl} guards it.
+ */
+final class EnrollmentMatrix {
+    static final byte UNGRADED = -1;
+    static final int GRADE_SLOTS = Grade.values().length + 1; // the last slot counts ungraded enrollments
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Map<String, Integer> studentIds = new HashMap<>();
+    private final Map<String, Integer> courseIds = new HashMap<>();
+    private final Map<String, Integer> departmentIds = new HashMap<>();
+    private final List<String> departments = new ArrayList<>();
+    private String[] courseCodes = new String[64];
+    private int[] courseDepartment = new int[64]; // -1 if the course has none
+    private byte[] courseCredits = new byte[64];
+
+    // One row per enrollment
+    private int[] studentOf = new int[1024];
+    private int[] courseOf = new int[1024];
+    private byte[] gradeOf = new byte[1024];
+    private byte[] creditsOf = new byte[1024];
+    private int rows;
+    // (studentId << 32 | courseId) -> row, for updates
+    private final LongIntMap rowIndex = new LongIntMap();
+
+    int studentId(String regNo) {
+        return studentIds.computeIfAbsent(regNo, key -> studentIds.size());
+    }
+
+    /**
+     * Registers the course, or refreshes its department and credits if it was replaced.
+     */
+    int courseId(Course course) {
+        Integer known = courseIds.get(course.getCode());
+        int id = (known != null) ? known : courseIds.size();
+        if (known == null) {
+            courseIds.put(course.getCode(), id);
+            if (id == courseCodes.length) {
+                int capacity = id * 2;
+                courseCodes = Arrays.copyOf(courseCodes, capacity);
+                courseDepartment = Arrays.copyOf(courseDepartment, capacity);
+                courseCredits = Arrays.copyOf(courseCredits, capacity);
+            }
+            courseCodes[id] = course.getCode();
+        }
+        courseDepartment[id] = departmentId(course.getDepartment());
+        byte credits = (byte) course.getCredits();
+        if (known != null && courseCredits[id] != credits) {
+            for (int row = 0; row < rows; row++) {
+                if (courseOf[row] == id) {
+                    creditsOf[row] = credits;
+                }
+            }
+        }
+        courseCredits[id] = credits;
+        return id;
+    }
+
+    private int departmentId(String department) {
+        if (department == null || department.isBlank()) {
+            return -1;
+        }
+        String key = department.trim().toUpperCase(Locale.ROOT);
+        Integer id = departmentIds.get(key);
+        if (id == null) {
+            id = departments.size();
+            departmentIds.put(key, id);
+            departments.add(key);
+        }
+        return id;
+    }
+
+    void add(String regNo, Course course, Grade grade) {
+        int student = studentId(regNo);
+        int courseId = courseIdOf(course);
+        long key = rowKey(student, courseId);
+        if (rowIndex.get(key) >= 0) {
+            setGrade(regNo, course, grade);
+            return;
+        }
+        if (rows == studentOf.length) {
+            int capacity = rows * 2;
+            studentOf = Arrays.copyOf(studentOf, capacity);
+            courseOf = Arrays.copyOf(courseOf, capacity);
+            gradeOf = Arrays.copyOf(gradeOf, capacity);
+            creditsOf = Arrays.copyOf(creditsOf, capacity);
+        }
+        studentOf[rows] = student;
+        courseOf[rows] = courseId;
+        gradeOf[rows] = gradeCode(grade);
+        creditsOf[rows] = courseCredits[courseId];
+        rowIndex.put(key, rows);
+        rows++;
+    }
+
+    void remove(String regNo, Course course) {
+        int row = row(regNo, course);
+        if (row < 0) {
+            return;
+        }
+        rowIndex.remove(rowKey(studentOf[row], courseOf[row]));
+        int last = --rows;
+        if (row != last) {
+            studentOf[row] = studentOf[last];
+            courseOf[row] = courseOf[last];
+            gradeOf[row] = gradeOf[last];
+            creditsOf[row] = creditsOf[last];
+            rowIndex.put(rowKey(studentOf[row], courseOf[row]), row);
+        }
+    }
+
+    void setGrade(String regNo, Course course, Grade grade) {
+        int row = row(regNo, course);
+        if (row >= 0) {
+            gradeOf[row] = gradeCode(grade);
+        }
+    }
+
+    // -1 if there is no such row
+    private int row(String regNo, Course course) {
+        Integer student = studentIds.get(regNo);
+        Integer courseId = courseIds.get(course.getCode());
+        return (student == null || courseId == null) ? -1 : rowIndex.get(rowKey(student, courseId));
+    }
+
+    // Courses seen first through an enrollment are registered on the spot
+    private int courseIdOf(Course course) {
+        Integer id = courseIds.get(course.getCode());
+        return (id != null) ? id : courseId(course);
+    }
+
+    private static long rowKey(int student, int course) {
+        return ((long) student << 32) | course;
+    }
+
+    private static byte gradeCode(Grade grade) {
+        return (grade == null) ? UNGRADED : (byte) grade.ordinal();
+    }
+
+    // --- Analytics ---
+
+    /**
+     * @return Counts indexed by Grade ordinal, with ungraded enrollments in the last slot
+     */
+    int[] gradeDistribution(String courseCode) {
+        int[] counts = new int[GRADE_SLOTS];
+        Integer id = courseIds.get(courseCode);
+        if (id == null) {
+            return counts;
+        }
+        int course = id;
+        for (int row = 0; row < rows; row++) {
+            if (courseOf[row] == course) {
+                counts[slot(gradeOf[row])]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Every course's distribution in one pass.
+     * @return Course code -> counts, laid out as in {@link #gradeDistribution}
+     */
+    Map<String, int[]> gradeDistributions() {
+        int courseCount = courseIds.size();
+        int[] counts = new int[courseCount * GRADE_SLOTS];
+        for (int row = 0; row < rows; row++) {
+            counts[courseOf[row] * GRADE_SLOTS + slot(gradeOf[row])]++;
+        }
+        Map<String, int[]> byCourse = new HashMap<>(courseCount * 2);
+        for (int course = 0; course < courseCount; course++) {
+            byCourse.put(courseCodes[course],
+                    Arrays.copyOfRange(counts, course * GRADE_SLOTS, (course + 1) * GRADE_SLOTS));
+        }
+        return byCourse;
+    }
+
+    /**
+     * @return Number of students at each total of enrolled credits, indexed by the total
+     */
+    int[] creditLoadHistogram() {
+        int[] load = new int[studentIds.size()];
+        int max = 0;
+        for (int row = 0; row < rows; row++) {
+            int total = load[studentOf[row]] += creditsOf[row];
+            if (total > max) {
+                max = total;
+            }
+        }
+        int[] histogram = new int[max + 1];
+        for (int total : load) {
+            histogram[total]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * A pass is any grade but F. Ungraded enrollments are not counted.
+     * @return One entry per department with graded enrollments, by department name
+     */
+    List<DepartmentPassRate> departmentPassRates() {
+        int[] graded = new int[departments.size()];
+        int[] passed = new int[departments.size()];
+        byte fail = (byte) Grade.F.ordinal();
+        for (int row = 0; row < rows; row++) {
+            byte grade = gradeOf[row];
+            int department = courseDepartment[courseOf[row]];
+            if (grade != UNGRADED && department >= 0) {
+                graded[department]++;
+                if (grade != fail) {
+                    passed[department]++;
+                }
+            }
+        }
+        List<DepartmentPassRate> rates = new ArrayList<>();
+        for (int department = 0; department < departments.size(); department++) {
+            if (graded[department] > 0) {
+                rates.add(new DepartmentPassRate(departments.get(department), graded[department], passed[department]));
+            }
+        }
+        rates.sort((a, b) -> a.department().compareTo(b.department()));
+        return rates;
+    }
+
+    private static int slot(byte grade) {
+        return (grade == UNGRADED) ? GRADES.length : grade;
+    }
+
+    int size() {
+        return rows;
+    }
+
+    /**
+     * Open-addressing long to int map with linear probing, so the row index is
+     * two primitive arrays rather than a boxed entry per enrollment. Keys are
+     * never negative, which leaves -1 free to mark an empty slot.
+     */
+    static final class LongIntMap {
+        private static final long EMPTY = -1L;
+
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        LongIntMap() {
+            allocate(1024);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * @return The key's value, or -1 if it is absent
+         */
+        int get(long key) {
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int i = slot(key);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        void remove(long key) {
+            int i = slot(key);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            // Shift later entries of the probe run back into the gap, so lookups never stop early
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(oldKeys.length * 2);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
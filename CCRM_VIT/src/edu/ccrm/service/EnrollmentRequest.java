@@ -0,0 +1,6 @@
+package edu.ccrm.service;
+
+/**
+ * One (student, course) pair in a bulk enrollment, as read from a registration file.
+ */
+public record EnrollmentRequest(String regNo, String courseCode) {}
@@ -1,15 +1,64 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Grade;
 import edu.ccrm.domain.Student;
+import edu.ccrm.exception.CourseFullException;
 import edu.ccrm.exception.DuplicateEnrollmentException;
 import edu.ccrm.exception.MaxCreditLimitExceededException;
+import java.util.List;
 
 public interface EnrollmentService {
-    void enrollStudent(Student student, Course course) throws DuplicateEnrollmentException, MaxCreditLimitExceededException;
+    void enrollStudent(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException;
+
+    /**
+     * Same as {@link #enrollStudent}, but prints nothing; for callers that
+     * report the outcome themselves, such as the request server.
+     */
+    void enrollQuietly(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException;
+
     void assignGrade(Student student, Course course, Grade grade);
     double calculateGpa(Student student);
     void unenrollStudent(Student student, Course course);
+
+    /**
+     * Same as {@link #unenrollStudent}, including the waitlist promotion, but
+     * prints nothing; for replaying changes that were reported when first made.
+     * @return false if the student was not enrolled in the course
+     */
+    boolean unenrollQuietly(Student student, Course course);
     void generateTranscript(Student student);
+    List<Enrollment> getCourseRoster(Course course);
+    int getEnrollmentCount(Course course);
+
+    /**
+     * Queues a student for a full course. When a seat frees up, the student at
+     * the head of the queue is enrolled automatically.
+     * @return The student's position in the queue, or 0 if they were already on it or enrolled
+     */
+    int joinWaitlist(Student student, Course course);
+
+    /**
+     * @return The regNos waiting for the course, in promotion order
+     */
+    List<String> getWaitlist(Course course);
+
+    /**
+     * Enrolls many students at once, reporting the outcome instead of printing it.
+     * Requests are grouped by student, and each group's duplicates and credit
+     * total are checked once over the whole group.
+     */
+    BatchEnrollmentResult enrollBatch(List<EnrollmentRequest> requests, BatchAtomicity atomicity);
+
+    /**
+     * Loads saved enrollments and their grades without printing a line per
+     * enrollment. Each enrollment passes the same checks as {@link #enrollStudent};
+     * one that is already present only has its grade applied. Consecutive
+     * records for one student are applied under a single lock.
+     * @return The number of new enrollments made
+     */
+    int restoreEnrollments(List<SavedEnrollment> saved);
 }
\ No newline at end of file
@@ -1,99 +1,433 @@
 package edu.ccrm.service;
 
+import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Grade;
 import edu.ccrm.domain.Student;
+import edu.ccrm.exception.CourseFullException;
 import edu.ccrm.exception.DuplicateEnrollmentException;
 import edu.ccrm.exception.MaxCreditLimitExceededException;
+import edu.ccrm.report.ReportRenderer;
+import edu.ccrm.service.BatchEnrollmentResult.Failure;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 public class EnrollmentServiceImpl implements EnrollmentService {
     private static final int MAX_CREDITS_PER_SEMESTER = 27;
 
+    private final DataStore dataStore = DataStore.getInstance();
+    // One reusable report buffer per thread
+    private static final ThreadLocal<ReportRenderer> REPORTS = ThreadLocal.withInitial(ReportRenderer::new);
+
+    @Override
+    public void enrollStudent(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException {
+        enrollQuietly(student, course);
+        System.out.println("Successfully enrolled " + student.getFullName() + " in " + course.getTitle());
+    }
+
     @Override
-    public void enrollStudent(Student student, Course course) throws DuplicateEnrollmentException, MaxCreditLimitExceededException {
-        boolean alreadyEnrolled = student.getEnrolledCourses().stream()
-                .anyMatch(enrollment -> enrollment.getCourse().getCode().equals(course.getCode()));
-        if (alreadyEnrolled) {
+    public void enrollQuietly(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException {
+        // The duplicate and credit checks must see the same enrollment list the add goes into,
+        // so the whole check-then-act runs under the student's stripe lock.
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            addEnrollment(student, course);
+        } finally {
+            lock.unlock();
+        }
+        dataStore.mutations().afterUnlock();
+    }
+
+    private void addEnrollment(Student student, Course course)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, CourseFullException {
+        if (student.isEnrolledIn(course.getCode())) {
             throw new DuplicateEnrollmentException(student.getFullName() + " is already enrolled in " + course.getTitle());
         }
 
-        int currentCredits = student.getEnrolledCourses().stream()
-                .mapToInt(enrollment -> enrollment.getCourse().getCredits())
-                .sum();
+        int currentCredits = student.getTotalCredits();
         if (currentCredits + course.getCredits() > MAX_CREDITS_PER_SEMESTER) {
             throw new MaxCreditLimitExceededException("Enrollment failed. Max credit limit of " + MAX_CREDITS_PER_SEMESTER + " would be exceeded.");
         }
 
+        dataStore.pinForUpdate(student);
+        // Claimed last, once nothing else can fail, so a rejected enrollment never holds a seat
+        if (!course.tryClaimSeat()) {
+            throw new CourseFullException(course.getTitle() + " is full (" + course.getCapacity() + " seats).");
+        }
+        dataStore.removeFromWaitlist(course.getCode(), student.getRegNo());
+        dataStore.mutations().enrolled(applyEnrollment(student, course));
+    }
+
+    // Caller holds the student's stripe lock and has already validated the enrollment
+    private Enrollment applyEnrollment(Student student, Course course) {
         Enrollment newEnrollment = new Enrollment(student, course);
         student.enrollCourse(newEnrollment); // This method should be on the Student class to add to its internal list
-        System.out.println("Successfully enrolled " + student.getFullName() + " in " + course.getTitle());
+        dataStore.addToRoster(newEnrollment);
+        return newEnrollment;
     }
 
     @Override
-    public void assignGrade(Student student, Course course, Grade grade) {
-        student.getEnrolledCourses().stream()
-                .filter(enrollment -> enrollment.getCourse().getCode().equals(course.getCode()))
-                .findFirst()
-                .orElseThrow(() -> new NoSuchElementException("Student is not enrolled in this course."))
-                .setGrade(grade);
+    public BatchEnrollmentResult enrollBatch(List<EnrollmentRequest> requests, BatchAtomicity atomicity) {
+        long start = System.nanoTime();
+        // Group by student, keeping each student's requests in file order
+        Map<String, List<EnrollmentRequest>> byStudent = new LinkedHashMap<>();
+        for (EnrollmentRequest request : requests) {
+            byStudent.computeIfAbsent(request.regNo(), regNo -> new ArrayList<>()).add(request);
+        }
+
+        List<Enrollment> enrolled = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        if (atomicity == BatchAtomicity.PER_STUDENT) {
+            for (Map.Entry<String, List<EnrollmentRequest>> group : byStudent.entrySet()) {
+                ReentrantLock lock = dataStore.lockFor(group.getKey());
+                lock.lock();
+                try {
+                    StudentPlan plan = plan(group.getKey(), group.getValue());
+                    if (plan.failures().isEmpty() && claimSeats(List.of(plan), failures)) {
+                        List<Enrollment> made = apply(plan);
+                        enrolled.addAll(made);
+                        dataStore.mutations().enrolledAll(made);
+                    } else {
+                        reject(plan, "Not applied: another request for this student failed", failures);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } else {
+            // Hold every involved student's stripe so the batch is checked and applied as one step
+            dataStore.withStripesFor(byStudent.keySet(), () -> {
+                List<StudentPlan> plans = new ArrayList<>(byStudent.size());
+                boolean valid = true;
+                for (Map.Entry<String, List<EnrollmentRequest>> group : byStudent.entrySet()) {
+                    StudentPlan plan = plan(group.getKey(), group.getValue());
+                    valid &= plan.failures().isEmpty();
+                    plans.add(plan);
+                }
+                valid = valid && claimSeats(plans, failures);
+                for (StudentPlan plan : plans) {
+                    if (valid) {
+                        enrolled.addAll(apply(plan));
+                    } else {
+                        reject(plan, "Not applied: the batch was rejected", failures);
+                    }
+                }
+                if (valid) {
+                    dataStore.mutations().enrolledAll(enrolled);
+                }
+            });
+        }
+        dataStore.mutations().afterUnlock();
+        return new BatchEnrollmentResult(atomicity, requests.size(), byStudent.size(),
+                List.copyOf(enrolled), List.copyOf(failures), System.nanoTime() - start);
     }
 
-    @Override
-    public double calculateGpa(Student student) {
-        List<Enrollment> gradedCourses = student.getEnrolledCourses().stream()
-                .filter(e -> e.getGrade() != null)
-                .toList();
+    /**
+     * One student's group after validation: the courses that can be added and
+     * the requests that cannot. A null student means the regNo was not found.
+     */
+    private record StudentPlan(Student student, List<EnrollmentRequest> accepted, List<Course> courses,
+                               List<Failure> failures) {}
+
+    // Caller holds the student's stripe lock
+    private StudentPlan plan(String regNo, List<EnrollmentRequest> group) {
+        Student student = dataStore.getStudent(regNo);
+        List<EnrollmentRequest> accepted = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        if (student == null) {
+            for (EnrollmentRequest request : group) {
+                failures.add(new Failure(request, "Student not found"));
+            }
+            return new StudentPlan(null, accepted, courses, failures);
+        }
+
+        Set<String> requested = new HashSet<>();
+        int newCredits = 0;
+        for (EnrollmentRequest request : group) {
+            Course course = dataStore.getCourse(request.courseCode());
+            if (course == null) {
+                failures.add(new Failure(request, "Course not found"));
+            } else if (student.isEnrolledIn(course.getCode())) {
+                failures.add(new Failure(request, "Already enrolled in " + course.getTitle()));
+            } else if (!requested.add(course.getCode())) {
+                failures.add(new Failure(request, "Duplicate request in this batch"));
+            } else {
+                accepted.add(request);
+                courses.add(course);
+                newCredits += course.getCredits();
+            }
+        }
+
+        // One credit check over the whole group rather than one per course
+        int totalCredits = student.getTotalCredits() + newCredits;
+        if (totalCredits > MAX_CREDITS_PER_SEMESTER) {
+            for (EnrollmentRequest request : accepted) {
+                failures.add(new Failure(request, "Max credit limit of " + MAX_CREDITS_PER_SEMESTER
+                        + " would be exceeded (" + totalCredits + " credits)"));
+            }
+            accepted.clear();
+            courses.clear();
+        }
+        return new StudentPlan(student, accepted, courses, failures);
+    }
+
+    /**
+     * Claims one seat per planned enrollment, all or nothing. If any course is
+     * full, the seats already claimed are released and the full courses'
+     * requests are recorded as failures.
+     */
+    private static boolean claimSeats(List<StudentPlan> plans, List<Failure> failures) {
+        List<Course> claimed = new ArrayList<>();
+        List<EnrollmentRequest> full = new ArrayList<>();
+        for (StudentPlan plan : plans) {
+            for (int i = 0; i < plan.courses().size(); i++) {
+                Course course = plan.courses().get(i);
+                if (course.tryClaimSeat()) {
+                    claimed.add(course);
+                } else {
+                    full.add(plan.accepted().get(i));
+                }
+            }
+        }
+        if (full.isEmpty()) {
+            return true;
+        }
+        claimed.forEach(Course::releaseSeat);
+        for (EnrollmentRequest request : full) {
+            failures.add(new Failure(request, "Course full"));
+        }
+        // Keep the remaining requests out of reject(), which reports them with its own reason
+        for (StudentPlan plan : plans) {
+            plan.accepted().removeAll(full);
+        }
+        return false;
+    }
 
-        if (gradedCourses.isEmpty()) return 0.0;
+    // The plan's student was looked up under the lock, so it is the current instance
+    private List<Enrollment> apply(StudentPlan plan) {
+        dataStore.pinForUpdate(plan.student());
+        List<Enrollment> made = new ArrayList<>(plan.courses().size());
+        for (Course course : plan.courses()) {
+            dataStore.removeFromWaitlist(course.getCode(), plan.student().getRegNo());
+            made.add(applyEnrollment(plan.student(), course));
+        }
+        return made;
+    }
+
+    private static void reject(StudentPlan plan, String reason, List<Failure> failures) {
+        failures.addAll(plan.failures());
+        for (EnrollmentRequest request : plan.accepted()) {
+            failures.add(new Failure(request, reason));
+        }
+    }
+
+    @Override
+    public void assignGrade(Student student, Course course, Grade grade) {
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            Enrollment enrollment = student.findEnrollment(course.getCode())
+                    .orElseThrow(() -> new NoSuchElementException("Student is not enrolled in this course."));
+            applyGrade(enrollment, grade);
+        } finally {
+            lock.unlock();
+        }
+        dataStore.mutations().afterUnlock();
+    }
 
-        double totalPoints = gradedCourses.stream()
-                .mapToDouble(e -> e.getGrade().getGradePoint() * e.getCourse().getCredits())
-                .sum();
+    // Caller holds the student's stripe lock
+    private void applyGrade(Enrollment enrollment, Grade grade) {
+        dataStore.pinForUpdate(enrollment.getStudent());
+        Grade previous = enrollment.getGrade();
+        enrollment.setGrade(grade);
+        dataStore.mutations().gradeAssigned(enrollment, previous);
+    }
 
-        int totalCredits = gradedCourses.stream()
-                .mapToInt(e -> e.getCourse().getCredits())
-                .sum();
+    @Override
+    public int restoreEnrollments(List<SavedEnrollment> saved) {
+        int made = 0;
+        int i = 0;
+        while (i < saved.size()) {
+            Student student = saved.get(i).student();
+            ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+            lock.lock();
+            try {
+                // Saved data is grouped by student, so one lock usually covers all of a student's rows
+                for (; i < saved.size() && saved.get(i).student() == student; i++) {
+                    SavedEnrollment row = saved.get(i);
+                    if (!student.isEnrolledIn(row.course().getCode())) {
+                        try {
+                            addEnrollment(student, row.course());
+                            made++;
+                        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException | CourseFullException e) {
+                            System.err.println("Could not restore enrollment " + student.getRegNo() + ","
+                                    + row.course().getCode() + " | Reason: " + e.getMessage());
+                            continue;
+                        }
+                    }
+                    if (row.grade() != null) {
+                        student.findEnrollment(row.course().getCode()).ifPresent(e -> applyGrade(e, row.grade()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        dataStore.mutations().afterUnlock();
+        return made;
+    }
 
-        return (totalCredits == 0) ? 0.0 : totalPoints / totalCredits;
+    /**
+     * Reads the running totals kept on Student instead of re-summing every enrollment.
+     */
+    @Override
+    public double calculateGpa(Student student) {
+        return student.getGpa();
     }
     
     @Override
     public void unenrollStudent(Student student, Course course) {
-        Optional<Enrollment> enrollmentOpt = student.getEnrolledCourses().stream()
-                .filter(e -> e.getCourse().getCode().equals(course.getCode()))
-                .findFirst();
-
-        if (enrollmentOpt.isPresent()) {
-            student.unenrollCourse(enrollmentOpt.get()); // Use the method from the Student class
-            System.out.println("Successfully unenrolled " + student.getFullName() + " from " + course.getTitle());
+        if (unenroll(student, course, true)) {
+            dataStore.mutations().afterUnlock();
         } else {
             System.err.println("Error: Student is not enrolled in that course.");
         }
     }
 
     @Override
-    public void generateTranscript(Student student) {
-        System.out.println("\n--- TRANSCRIPT ---");
-        System.out.println(student.getProfileDetails());
-        System.out.println("--------------------------------------------------");
+    public boolean unenrollQuietly(Student student, Course course) {
+        boolean unenrolled = unenroll(student, course, false);
+        if (unenrolled) {
+            dataStore.mutations().afterUnlock();
+        }
+        return unenrolled;
+    }
 
-        if (student.getEnrolledCourses().isEmpty()) {
-            System.out.println("No courses enrolled.");
-        } else {
-            // This demonstrates polymorphism, as each 'enrollment' object's
-            // specific toString() method is called automatically.
-            for (Enrollment enrollment : student.getEnrolledCourses()) {
-                System.out.println(enrollment);
+    private boolean unenroll(Student student, Course course, boolean report) {
+        Optional<Enrollment> enrollmentOpt;
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            enrollmentOpt = student.findEnrollment(course.getCode());
+            enrollmentOpt.ifPresent(enrollment -> {
+                dataStore.pinForUpdate(student);
+                student.unenrollCourse(enrollment); // Use the method from the Student class
+                dataStore.removeFromRoster(enrollment);
+                course.releaseSeat();
+                dataStore.mutations().unenrolled(enrollment);
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        if (enrollmentOpt.isEmpty()) {
+            return false;
+        }
+        if (report) {
+            System.out.println("Successfully unenrolled " + student.getFullName() + " from " + course.getTitle());
+        }
+        // Outside the student's lock: the promoted student has a stripe of their own
+        promoteFromWaitlist(course, report);
+        return true;
+    }
+
+    /**
+     * Fills any free seats from the head of the course's waitlist. Students
+     * who can no longer take the course (already enrolled, over the credit
+     * limit, or removed) are dropped from the list and the next one is tried.
+     */
+    private void promoteFromWaitlist(Course course, boolean report) {
+        String regNo;
+        while ((regNo = dataStore.pollWaitlist(course.getCode())) != null) {
+            Student next = dataStore.getStudent(regNo);
+            if (next == null) {
+                continue;
+            }
+            ReentrantLock lock = dataStore.lockFor(regNo);
+            lock.lock();
+            try {
+                addEnrollment(next, course);
+                if (report) {
+                    System.out.println("Promoted " + next.getFullName() + " from the waitlist into " + course.getTitle());
+                }
+                return;
+            } catch (CourseFullException e) {
+                // Another enrollment took the seat first; keep this student's place
+                dataStore.returnToWaitlist(course.getCode(), regNo);
+                return;
+            } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException e) {
+                if (report) {
+                    System.err.println("Skipped " + next.getFullName() + " on the waitlist: " + e.getMessage());
+                }
+            } finally {
+                lock.unlock();
             }
         }
-        
-        System.out.println("--------------------------------------------------");
-        System.out.printf("Cumulative GPA: %.2f\n", calculateGpa(student));
-        System.out.println("--- END OF TRANSCRIPT ---\n");
     }
-}
\ No newline at end of file
+
+    @Override
+    public int joinWaitlist(Student student, Course course) {
+        if (student.isEnrolledIn(course.getCode())) {
+            return 0;
+        }
+        int position = dataStore.addToWaitlist(course.getCode(), student.getRegNo());
+        if (position > 0) {
+            dataStore.mutations().waitlisted(course, student);
+            // A seat may have been freed between the failed enrollment and joining
+            if (course.getSeatsTaken() < course.getCapacity()) {
+                promoteFromWaitlist(course, true);
+                dataStore.mutations().afterUnlock();
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public List<String> getWaitlist(Course course) {
+        return dataStore.getWaitlist(course.getCode());
+    }
+
+    /**
+     * Renders the whole transcript into one buffer under the student's lock,
+     * then prints it with a single write.
+     */
+    @Override
+    public void generateTranscript(Student student) {
+        ReportRenderer report = REPORTS.get();
+        ReentrantLock lock = dataStore.lockFor(student.getRegNo());
+        lock.lock();
+        try {
+            report.transcript(student);
+        } finally {
+            lock.unlock();
+        }
+        report.printTo(System.out);
+    }
+
+    /**
+     * Reads the course's roster from the reverse index, so the cost is
+     * proportional to the roster size rather than to the number of students.
+     */
+    @Override
+    public List<Enrollment> getCourseRoster(Course course) {
+        return dataStore.getRoster(course.getCode());
+    }
+
+    @Override
+    public int getEnrollmentCount(Course course) {
+        return dataStore.getRosterSize(course.getCode());
+    }
+}
@@ -13,17 +13,18 @@ public class InstructorServiceImpl implements InstructorService {
     @Override
     public void addInstructor(Instructor instructor) {
         if (instructor != null && instructor.getEmployeeId() != null) {
-            dataStore.instructors.put(instructor.getEmployeeId(), instructor);
+            dataStore.putInstructor(instructor);
+            dataStore.mutations().instructorAdded(instructor);
         }
     }
 
     @Override
     public Optional<Instructor> findInstructorByEmployeeId(String employeeId) {
-        return Optional.ofNullable(dataStore.instructors.get(employeeId));
+        return Optional.ofNullable(dataStore.getInstructor(employeeId));
     }
 
     @Override
     public List<Instructor> getAllInstructors() {
-        return new ArrayList<>(dataStore.instructors.values());
+        return new ArrayList<>(dataStore.instructors());
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Semester;
+import java.util.Locale;
+
+/**
+ * The group of students a GPA ranking is taken over. Department and semester
+ * rankings use each student's GPA over their graded courses in that
+ * department or semester only.
+ */
+public record RankingScope(Kind kind, String value) {
+    public enum Kind { ALL, DEPARTMENT, SEMESTER }
+
+    private static final RankingScope ALL = new RankingScope(Kind.ALL, "");
+
+    public static RankingScope all() {
+        return ALL;
+    }
+
+    /**
+     * @param department Matched case-insensitively, like the course department index
+     */
+    public static RankingScope department(String department) {
+        return new RankingScope(Kind.DEPARTMENT, department.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static RankingScope semester(Semester semester) {
+        return new RankingScope(Kind.SEMESTER, semester.name());
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case ALL -> "All Students";
+            case DEPARTMENT -> "Department " + value;
+            case SEMESTER -> "Semester " + value;
+        };
+    }
+}
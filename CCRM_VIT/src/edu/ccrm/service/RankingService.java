@@ -0,0 +1,36 @@
+package edu.ccrm.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * GPA rankings over the whole cohort, a department or a semester. Only
+ * students with at least one graded course in the scope are ranked.
+ */
+public interface RankingService {
+    /**
+     * Recomputes every ranking from the data store, e.g. after it was reloaded.
+     */
+    void rebuild();
+
+    /**
+     * @return Up to k students, best first; a tie at the cut-off is broken by regNo
+     */
+    List<StudentStanding> getTopStudents(RankingScope scope, int k);
+
+    Optional<StudentStanding> findStanding(RankingScope scope, String regNo);
+
+    /**
+     * @param gpa Compared to the exact GPA, e.g. 9.0 for a dean's list, so 8.996 does not qualify
+     * @return The students at or above the GPA, best first
+     */
+    List<StudentStanding> findStudentsWithGpaAtLeast(RankingScope scope, double gpa);
+
+    /**
+     * @param gpa Compared to the exact GPA, e.g. 5.0 for academic probation, so 4.996 is below it
+     * @return The students below the GPA, best first
+     */
+    List<StudentStanding> findStudentsWithGpaBelow(RankingScope scope, double gpa);
+
+    int getRankedCount(RankingScope scope);
+}
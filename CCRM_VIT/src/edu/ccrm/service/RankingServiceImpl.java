@@ -0,0 +1,383 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationListener;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every ranking up to date as grades change, so queries never recompute
+ * or sort GPAs.
+ *
+ * Each scope holds its students' graded credits and quality points, a Fenwick
+ * tree counting students per GPA bucket (hundredths, 0.00 to 10.00) and the
+ * regNos in each bucket. A rank or percentile is one prefix sum over 1001
+ * buckets; a top-k walks the buckets from the top. Grade, enrollment and
+ * unenrollment events move one student between buckets in O(log n).
+ *
+ * Events arrive under the student's stripe lock, so they only work out each
+ * scope's change there; {@link #afterUnlock} applies the changes once the lock
+ * is released, so writers on different stripes do not queue on the shared
+ * all-students index while holding their stripe.
+ *
+ * The rankings are built on the first query, or by {@link #rebuild}, as
+ * described on {@link MutationListener}.
+ */
+public class RankingServiceImpl implements RankingService, MutationListener {
+    private final DataStore dataStore = DataStore.getInstance();
+
+    private volatile ConcurrentMap<RankingScope, ScopeIndex> scopes; // null until built
+    private final Object buildLock = new Object();
+    // Changes worked out under a stripe lock by this thread, applied in afterUnlock
+    private final ThreadLocal<List<Move>> pending = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public void rebuild() {
+        synchronized (buildLock) {
+            dataStore.withAllStripes(() -> scopes = build(dataStore.students()));
+        }
+    }
+
+    /**
+     * Totals every student's graded courses per scope in parallel, then builds
+     * the scopes in parallel from the totals.
+     */
+    private static ConcurrentMap<RankingScope, ScopeIndex> build(Iterable<Student> students) {
+        List<Student> all = new ArrayList<>();
+        students.forEach(all::add);
+        Map<RankingScope, List<Tally>> tallies = all.parallelStream()
+                .flatMap(RankingServiceImpl::talliesOf)
+                .collect(Collectors.groupingBy(Tally::scope));
+        return tallies.entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, entry -> new ScopeIndex(entry.getValue())));
+    }
+
+    // One tally per scope the student has graded courses in
+    private static Stream<Tally> talliesOf(Student student) {
+        if (student.getGradedCredits() == 0) {
+            return Stream.empty();
+        }
+        Map<RankingScope, Tally> byScope = new HashMap<>();
+        byScope.put(RankingScope.all(), new Tally(RankingScope.all(), student.getRegNo(),
+                student.getGradedCredits(), student.getQualityPoints()));
+        student.forEachEnrollment(enrollment -> {
+            Grade grade = enrollment.getGrade();
+            if (grade != null) {
+                int credits = enrollment.getCourse().getCredits();
+                for (RankingScope scope : courseScopes(enrollment.getCourse())) {
+                    byScope.computeIfAbsent(scope, s -> new Tally(s, student.getRegNo(), 0, 0))
+                            .add(credits, grade.getGradePoint() * credits);
+                }
+            }
+        });
+        return byScope.values().stream();
+    }
+
+    private static List<RankingScope> courseScopes(Course course) {
+        List<RankingScope> scopes = new ArrayList<>(2);
+        if (course.getDepartment() != null && !course.getDepartment().isBlank()) {
+            scopes.add(RankingScope.department(course.getDepartment()));
+        }
+        if (course.getSemester() != null) {
+            scopes.add(RankingScope.semester(course.getSemester()));
+        }
+        return scopes;
+    }
+
+    private ConcurrentMap<RankingScope, ScopeIndex> scopes() {
+        if (scopes == null) {
+            synchronized (buildLock) {
+                if (scopes == null) {
+                    rebuild();
+                }
+            }
+        }
+        return scopes;
+    }
+
+    // --- Queries ---
+
+    @Override
+    public List<StudentStanding> getTopStudents(RankingScope scope, int k) {
+        ScopeIndex index = scopes().get(scope);
+        return (index == null || k <= 0) ? List.of() : withNames(index.top(k));
+    }
+
+    @Override
+    public Optional<StudentStanding> findStanding(RankingScope scope, String regNo) {
+        ScopeIndex index = scopes().get(scope);
+        StudentStanding standing = (index == null) ? null : index.standing(regNo);
+        return Optional.ofNullable(standing).map(s -> withNames(List.of(s)).get(0));
+    }
+
+    @Override
+    public List<StudentStanding> findStudentsWithGpaAtLeast(RankingScope scope, double gpa) {
+        ScopeIndex index = scopes().get(scope);
+        return (index == null) ? List.of() : withNames(index.range(gpa, Double.POSITIVE_INFINITY));
+    }
+
+    @Override
+    public List<StudentStanding> findStudentsWithGpaBelow(RankingScope scope, double gpa) {
+        ScopeIndex index = scopes().get(scope);
+        return (index == null) ? List.of() : withNames(index.range(Double.NEGATIVE_INFINITY, gpa));
+    }
+
+    @Override
+    public int getRankedCount(RankingScope scope) {
+        ScopeIndex index = scopes().get(scope);
+        return (index == null) ? 0 : index.size();
+    }
+
+    // Looked up after the scope's lock is released: in read-mostly mode a lookup may take a stripe lock
+    private List<StudentStanding> withNames(List<StudentStanding> standings) {
+        List<StudentStanding> named = new ArrayList<>(standings.size());
+        for (StudentStanding standing : standings) {
+            Student student = dataStore.getStudent(standing.regNo());
+            named.add(standing.withName(student != null ? student.getFullName() : ""));
+        }
+        return named;
+    }
+
+    // --- Events, each delivered under the student's stripe lock ---
+
+    @Override
+    public void enrolled(Enrollment enrollment) {
+        queue(enrollment, null, enrollment.getGrade());
+    }
+
+    @Override
+    public void unenrolled(Enrollment enrollment) {
+        queue(enrollment, enrollment.getGrade(), null);
+    }
+
+    @Override
+    public void gradeAssigned(Enrollment enrollment, Grade previous) {
+        queue(enrollment, previous, enrollment.getGrade());
+    }
+
+    /**
+     * Applies the changes this thread queued, now that its stripe lock is released.
+     */
+    @Override
+    public void afterUnlock() {
+        List<Move> moves = pending.get();
+        for (Move move : moves) {
+            move.index().move(move.regNo(), move.credits(), move.points());
+        }
+        moves.clear();
+    }
+
+    // The enrollment's grade went from one value to another (null: not graded or not enrolled)
+    private void queue(Enrollment enrollment, Grade from, Grade to) {
+        ConcurrentMap<RankingScope, ScopeIndex> built = scopes;
+        if (built == null || from == to) {
+            return;
+        }
+        String regNo = enrollment.getStudent().getRegNo();
+        int courseCredits = enrollment.getCourse().getCredits();
+        int credits = (to == null ? 0 : courseCredits) - (from == null ? 0 : courseCredits);
+        double points = (to == null ? 0 : to.getGradePoint() * courseCredits)
+                - (from == null ? 0 : from.getGradePoint() * courseCredits);
+        // Resolved now, so a rebuild in between leaves the change on the index it replaced
+        List<Move> moves = pending.get();
+        moves.add(new Move(built.computeIfAbsent(RankingScope.all(), s -> new ScopeIndex(List.of())),
+                regNo, credits, points));
+        for (RankingScope scope : courseScopes(enrollment.getCourse())) {
+            moves.add(new Move(built.computeIfAbsent(scope, s -> new ScopeIndex(List.of())), regNo, credits, points));
+        }
+    }
+
+    private record Move(ScopeIndex index, String regNo, int credits, double points) {}
+
+    static int bucketOf(double gpa) {
+        return (int) Math.max(0, Math.min(ScopeIndex.BUCKETS - 1, Math.round(gpa * 100)));
+    }
+
+    /**
+     * A student's graded credits and quality points within one scope.
+     */
+    private static final class Tally {
+        private final RankingScope scope;
+        private final String regNo;
+        private int credits;
+        private double points;
+
+        Tally(RankingScope scope, String regNo, int credits, double points) {
+            this.scope = scope;
+            this.regNo = regNo;
+            this.credits = credits;
+            this.points = points;
+        }
+
+        RankingScope scope() {
+            return scope;
+        }
+
+        void add(int credits, double points) {
+            this.credits += credits;
+            this.points += points;
+        }
+
+        double gpa() {
+            return points / credits;
+        }
+    }
+
+    /**
+     * One scope's ranking. All access is synchronized on the index.
+     *
+     * Changes to one student may be applied out of order, since each writer
+     * applies its own after releasing the stripe lock. They are sums, so the
+     * totals come out right, but a tally can pass through zero or negative
+     * credits on the way; it is only ranked while its credits are positive.
+     */
+    private static final class ScopeIndex {
+        static final int BUCKETS = 1001;
+
+        private final Map<String, Tally> tallies = new HashMap<>();
+        private int ranked; // tallies with positive credits, i.e. those in a bucket
+        // Fenwick tree over the bucket counts, 1-based
+        private final int[] tree = new int[BUCKETS + 1];
+        private final List<NavigableSet<String>> members = new ArrayList<>(Collections.nCopies(BUCKETS, null));
+
+        ScopeIndex(List<Tally> initial) {
+            int[] counts = new int[BUCKETS];
+            ranked = initial.size(); // built only from students with graded credits
+            for (Tally tally : initial) {
+                tallies.put(tally.regNo, tally);
+                int bucket = bucketOf(tally.gpa());
+                counts[bucket]++;
+                bucketMembers(bucket).add(tally.regNo);
+            }
+            // Linear-time Fenwick build: each node passes its sum to its parent
+            for (int i = 1; i <= BUCKETS; i++) {
+                tree[i] += counts[i - 1];
+                int parent = i + (i & -i);
+                if (parent <= BUCKETS) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+
+        /**
+         * Adds a change to the student's totals and moves them from their old
+         * bucket to the new one, as one step.
+         */
+        synchronized void move(String regNo, int credits, double points) {
+            Tally tally = tallies.computeIfAbsent(regNo, r -> new Tally(null, r, 0, 0));
+            if (tally.credits > 0) {
+                int bucket = bucketOf(tally.gpa());
+                members.get(bucket).remove(regNo);
+                update(bucket, -1);
+                ranked--;
+            }
+            tally.add(credits, points);
+            if (tally.credits > 0) {
+                int bucket = bucketOf(tally.gpa());
+                bucketMembers(bucket).add(regNo);
+                update(bucket, 1);
+                ranked++;
+            } else if (tally.credits == 0 && tally.points == 0) {
+                tallies.remove(regNo); // points are whole numbers, so this is exact
+            }
+        }
+
+        private NavigableSet<String> bucketMembers(int bucket) {
+            NavigableSet<String> set = members.get(bucket);
+            if (set == null) {
+                set = new TreeSet<>();
+                members.set(bucket, set);
+            }
+            return set;
+        }
+
+        private void update(int bucket, int delta) {
+            for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // Number of students in buckets 0..bucket
+        private int countUpTo(int bucket) {
+            int sum = 0;
+            for (int i = bucket + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        synchronized int size() {
+            return ranked;
+        }
+
+        synchronized StudentStanding standing(String regNo) {
+            Tally tally = tallies.get(regNo);
+            return (tally == null || tally.credits <= 0) ? null : standing(tally, bucketOf(tally.gpa()));
+        }
+
+        private StudentStanding standing(Tally tally, int bucket) {
+            int n = ranked;
+            int atOrBelow = countUpTo(bucket);
+            int below = (bucket == 0) ? 0 : countUpTo(bucket - 1);
+            double percentile = 100.0 * (below + (atOrBelow - below) / 2.0) / n;
+            return new StudentStanding(tally.regNo, null, tally.gpa(), n - atOrBelow + 1, n, percentile);
+        }
+
+        synchronized List<StudentStanding> top(int k) {
+            List<StudentStanding> top = new ArrayList<>(Math.min(k, ranked));
+            for (int bucket = BUCKETS - 1; bucket >= 0 && top.size() < k; bucket--) {
+                NavigableSet<String> set = members.get(bucket);
+                if (set == null) {
+                    continue;
+                }
+                for (String regNo : set) {
+                    if (top.size() == k) {
+                        break;
+                    }
+                    top.add(standing(tallies.get(regNo), bucket));
+                }
+            }
+            return top;
+        }
+
+        /**
+         * Students with minGpa <= GPA < maxGpa, best first. Rounding is monotonic, so
+         * only the buckets of the two bounds can hold students on the wrong side;
+         * their members are checked against the exact GPA.
+         */
+        synchronized List<StudentStanding> range(double minGpa, double maxGpa) {
+            int from = bucketOf(minGpa);
+            int to = bucketOf(maxGpa);
+            int count = countUpTo(to) - ((from == 0) ? 0 : countUpTo(from - 1));
+            List<StudentStanding> matches = new ArrayList<>(count);
+            for (int bucket = to; bucket >= from; bucket--) {
+                NavigableSet<String> set = members.get(bucket);
+                if (set == null) {
+                    continue;
+                }
+                boolean edge = bucket == from || bucket == to;
+                for (String regNo : set) {
+                    Tally tally = tallies.get(regNo);
+                    if (!edge || tally.gpa() >= minGpa && tally.gpa() < maxGpa) {
+                        matches.add(standing(tally, bucket));
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+
+/**
+ * An enrollment read back from saved data, already resolved against the loaded
+ * students and courses. A null grade means the enrollment has not been graded.
+ */
+public record SavedEnrollment(Student student, Course course, Grade grade) {}
@@ -5,8 +5,12 @@ import java.util.List;
 import java.util.Optional;
 
 public interface StudentService {
-    void addStudent(Student student);
+    /**
+     * @return false if the student was rejected, e.g. because the regNo is already taken
+     */
+    boolean addStudent(Student student);
     Optional<Student> findStudentByRegNo(String regNo);
     List<Student> getAllStudents();
+    int getStudentCount();
     void updateStudent(Student student);
 }
\ No newline at end of file
@@ -12,25 +12,36 @@ public class StudentServiceImpl implements StudentService {
     private final DataStore dataStore = DataStore.getInstance();
 
     @Override
-    public void addStudent(Student student) {
+    public boolean addStudent(Student student) {
         if (student == null || student.getRegNo() == null) {
             System.err.println("Cannot add a null student or a student with no registration number.");
-            return;
+            return false;
+        }
+        // The registration number is the unique key; an existing record is never overwritten,
+        // since its enrollments, roster entries and seats would be left behind.
+        if (!dataStore.addStudent(student)) {
+            System.err.println("Error: A student with registration number " + student.getRegNo() + " already exists.");
+            return false;
         }
-        // Use the registration number as the unique key in our map.
-        dataStore.students.put(student.getRegNo(), student);
+        dataStore.mutations().studentAdded(student);
+        return true;
     }
 
     @Override
     public Optional<Student> findStudentByRegNo(String regNo) {
         // Optional.ofNullable handles cases where the key might not exist.
-        return Optional.ofNullable(dataStore.students.get(regNo));
+        return Optional.ofNullable(dataStore.getStudent(regNo));
     }
 
     @Override
     public List<Student> getAllStudents() {
         // Return a new ArrayList to prevent modification of the original map's values.
-        return new ArrayList<>(dataStore.students.values());
+        return new ArrayList<>(dataStore.students());
+    }
+
+    @Override
+    public int getStudentCount() {
+        return dataStore.studentCount();
     }
 
     @Override
@@ -38,9 +49,9 @@ public class StudentServiceImpl implements StudentService {
         if (student == null || student.getRegNo() == null) {
             return;
         }
-        // `put` will overwrite the existing entry if the key exists.
-        if (dataStore.students.containsKey(student.getRegNo())) {
-            dataStore.students.put(student.getRegNo(), student);
+        // `replace` only overwrites an existing entry, and does so atomically.
+        if (dataStore.replaceStudent(student)) {
+            dataStore.mutations().studentUpdated(student);
         }
     }
 }
\ No newline at end of file
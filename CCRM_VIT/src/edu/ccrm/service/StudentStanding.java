@@ -0,0 +1,15 @@
+package edu.ccrm.service;
+
+/**
+ * A student's place in a {@link RankingScope}. Students with equal GPAs, to two
+ * decimals, share a rank.
+ * @param rank 1 + the number of students in the scope with a higher GPA
+ * @param outOf Number of students ranked in the scope
+ * @param percentile Share of the scope below this student, counting ties as half, from 0 to 100
+ */
+public record StudentStanding(String regNo, String fullName, double gpa, int rank, int outOf, double percentile) {
+
+    StudentStanding withName(String name) {
+        return new StudentStanding(regNo, name, gpa, rank, outOf, percentile);
+    }
+}
@@ -176,18 +176,13 @@ public class Validator {
         }
         
         // Check for duplicate enrollment
-        boolean alreadyEnrolled = student.getEnrolledCourses().stream()
-            .anyMatch(enrollment -> enrollment.getCourse().getCode().equals(course.getCode()));
-        
-        if (alreadyEnrolled) {
+        if (student.isEnrolledIn(course.getCode())) {
             throw new IllegalArgumentException("Student is already enrolled in this course");
         }
         
         // Check credit limit
-        int currentCredits = student.getEnrolledCourses().stream()
-            .mapToInt(enrollment -> enrollment.getCourse().getCredits())
-            .sum();
-            
+        int currentCredits = student.getTotalCredits();
+
         if (currentCredits + course.getCredits() > maxCreditsPerSemester) {
             throw new IllegalArgumentException("Enrollment would exceed maximum credit limit of " + maxCreditsPerSemester);
         }
@@ -5,4 +5,6 @@
  * 
  */
 module CCRM_VIT {
+	requires java.management;
+	requires jdk.httpserver;
 }
\ No newline at end of file